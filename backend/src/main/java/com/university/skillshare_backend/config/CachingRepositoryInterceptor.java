@@ -0,0 +1,112 @@
+package com.university.skillshare_backend.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.university.skillshare_backend.service.EntityCacheService;
+
+/**
+ * Serves repository lookups by ID from the entity cache and invalidates the cache
+ * after every save or delete that goes through the repository.
+ */
+class CachingRepositoryInterceptor implements MethodInterceptor {
+
+    private final Class<?> domainType;
+    private final ObjectProvider<EntityCacheService> cacheServiceProvider;
+
+    CachingRepositoryInterceptor(Class<?> domainType, ObjectProvider<EntityCacheService> cacheServiceProvider) {
+        this.domainType = domainType;
+        this.cacheServiceProvider = cacheServiceProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        EntityCacheService cache = cacheServiceProvider.getObject();
+        Object[] args = invocation.getArguments();
+
+        switch (invocation.getMethod().getName()) {
+            case "findById":
+                return findById(invocation, cache, args[0]);
+            case "existsById":
+                return cache.get(domainType, args[0]).isPresent() || (Boolean) invocation.proceed();
+            case "findAllById":
+                return findAllById(invocation, cache, (Iterable<?>) args[0]);
+            case "save":
+            case "saveAll":
+            case "insert": {
+                // Evict after the write so a concurrent read cannot cache the old value
+                Object result = invocation.proceed();
+                forEachEntity(result, cache::evictEntity);
+                return result;
+            }
+            case "delete":
+            case "deleteAll": {
+                Object result = invocation.proceed();
+                if (args.length == 0) {
+                    cache.evictAll(domainType);
+                } else {
+                    forEachEntity(args[0], cache::evictEntity);
+                }
+                return result;
+            }
+            case "deleteById":
+            case "deleteAllById": {
+                Object result = invocation.proceed();
+                forEachEntity(args[0], id -> cache.evict(domainType, id));
+                return result;
+            }
+            default:
+                return invocation.proceed();
+        }
+    }
+
+    private Object findById(MethodInvocation invocation, EntityCacheService cache, Object id) throws Throwable {
+        Optional<?> cached = cache.get(domainType, id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long readVersion = cache.readVersion(domainType);
+        Optional<?> loaded = (Optional<?>) invocation.proceed();
+        loaded.ifPresent(entity -> cache.put(entity, readVersion));
+        return loaded;
+    }
+
+    private Object findAllById(MethodInvocation invocation, EntityCacheService cache, Iterable<?> ids) throws Throwable {
+        List<Object> found = new ArrayList<>();
+        List<Object> missing = new ArrayList<>();
+        for (Object id : ids) {
+            Optional<?> cached = cache.get(domainType, id);
+            if (cached.isPresent()) {
+                found.add(cached.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        // Only ask the database for the IDs that were not cached
+        long readVersion = cache.readVersion(domainType);
+        ((ProxyMethodInvocation) invocation).setArguments(missing);
+        for (Object entity : (Iterable<?>) invocation.proceed()) {
+            cache.put(entity, readVersion);
+            found.add(entity);
+        }
+        return found;
+    }
+
+    private static void forEachEntity(Object value, java.util.function.Consumer<Object> action) {
+        if (value instanceof Iterable<?> values) {
+            values.forEach(action);
+        } else if (value != null) {
+            action.accept(value);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.university.skillshare_backend.config;
+
+import java.util.Map;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.Quiz;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.GroupRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.repository.QuizRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.EntityCacheService;
+
+/**
+ * Puts the entity cache in front of the repositories of the most frequently read
+ * entities, so existing findById calls are served from memory
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    private static final Map<Class<?>, Class<?>> CACHED_REPOSITORIES = Map.of(
+        UserRepository.class, User.class,
+        PostRepository.class, Post.class,
+        GroupRepository.class, Group.class,
+        QuizRepository.class, Quiz.class
+    );
+
+    @Bean
+    public static BeanPostProcessor cachingRepositoryPostProcessor(
+            ObjectProvider<EntityCacheService> cacheServiceProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                for (Map.Entry<Class<?>, Class<?>> repository : CACHED_REPOSITORIES.entrySet()) {
+                    if (repository.getKey().isInstance(bean)) {
+                        ProxyFactory factory = new ProxyFactory();
+                        factory.setTarget(bean);
+                        factory.addInterface(repository.getKey());
+                        factory.addAdvice(new CachingRepositoryInterceptor(repository.getValue(), cacheServiceProvider));
+                        return factory.getProxy();
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.lang.NonNull;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
@@ -43,6 +46,25 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return MongoClients.create(mongoClientSettings);
     }
 
+    /**
+     * Indexes declared on the document classes are not built while the context starts,
+     * which would need a reachable database; IndexMigrationService builds them afterwards
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return false;
+    }
+
+    /**
+     * Register every document class up front, so all of their indexes are known
+     * before any of them is used
+     */
+    @Override
+    @NonNull
+    protected Collection<String> getMappingBasePackages() {
+        return List.of("com.university.skillshare_backend.model");
+    }
+
     @Bean
     public MongoTransactionManager transactionManager(MongoDatabaseFactory dbFactory) {
         return new MongoTransactionManager(dbFactory);
@@ -0,0 +1,43 @@
+package com.university.skillshare_backend.config;
+
+import java.util.Map;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.university.skillshare_backend.service.SessionService;
+
+/**
+ * Authenticates a WebSocket handshake from a "token" query parameter, for clients
+ * that cannot send headers with it (SockJS, browsers). The user ID is kept in the
+ * WebSocket session attributes, where {@link StompAuthChannelInterceptor} picks it
+ * up on CONNECT. Handshakes without a valid token are still accepted, anonymously.
+ */
+public class SessionTokenHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final SessionService sessionService;
+
+    public SessionTokenHandshakeInterceptor(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        sessionService.getSessionUserId(token)
+            .ifPresent(userId -> attributes.put(USER_ID_ATTRIBUTE, userId));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler, Exception exception) {
+    }
+}
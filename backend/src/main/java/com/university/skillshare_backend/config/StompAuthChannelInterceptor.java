@@ -0,0 +1,64 @@
+package com.university.skillshare_backend.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.StringUtils;
+
+import com.university.skillshare_backend.service.SessionService;
+
+/**
+ * Binds a STOMP session to its user on CONNECT, from the session token in the
+ * "Authorization" header of the CONNECT frame or, failing that, from the handshake.
+ *
+ * The broker then resolves /user/... destinations of that session, so
+ * convertAndSendToUser(userId, ...) is delivered to it. A CONNECT without a valid
+ * token (none, an empty header, or an invalid or expired one) falls back to the
+ * handshake, and otherwise stays anonymous, so public topics still work.
+ */
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private final SessionService sessionService;
+
+    public StompAuthChannelInterceptor(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String token = accessor.getFirstNativeHeader("Authorization");
+        String userId = null;
+        if (StringUtils.hasText(token)) {
+            userId = sessionService.getSessionUserId(token).orElse(null);
+            if (userId == null) {
+                logger.warn("Invalid or expired session token on STOMP CONNECT of session {}", accessor.getSessionId());
+            }
+        }
+        if (userId == null) {
+            Map<String, Object> attributes = accessor.getSessionAttributes();
+            userId = attributes == null ? null
+                : (String) attributes.get(SessionTokenHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        }
+        if (userId != null) {
+            // The accessor is still mutable before the message is sent, so this
+            // sets the user of the message and of the session
+            accessor.setUser(new StompPrincipal(userId));
+        }
+        return message;
+    }
+}
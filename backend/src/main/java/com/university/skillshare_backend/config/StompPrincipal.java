@@ -0,0 +1,26 @@
+package com.university.skillshare_backend.config;
+
+import java.security.Principal;
+
+/**
+ * The user of a STOMP session. Its name is the user ID, so
+ * convertAndSendToUser(userId, ...) reaches all of the user's sessions.
+ */
+public class StompPrincipal implements Principal {
+
+    private final String userId;
+
+    public StompPrincipal(String userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+
+    @Override
+    public String toString() {
+        return "StompPrincipal[" + userId + "]";
+    }
+}
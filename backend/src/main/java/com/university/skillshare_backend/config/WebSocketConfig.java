@@ -1,23 +1,42 @@
 package com.university.skillshare_backend.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.lang.NonNull;
 
+import com.university.skillshare_backend.service.SessionService;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SessionService sessionService;
+
+    @Autowired
+    public WebSocketConfig(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
     @Override
     public void registerStompEndpoints(@NonNull StompEndpointRegistry registry) {
+        // Clients authenticate with their session token, as ?token= on the handshake
+        // or as the Authorization header of the CONNECT frame
         registry.addEndpoint("/ws")
             .setAllowedOrigins("http://localhost:5173")
+            .addInterceptors(new SessionTokenHandshakeInterceptor(sessionService))
             .withSockJS();
     }
 
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(new StompAuthChannelInterceptor(sessionService));
+    }
+
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
@@ -6,6 +6,14 @@ import org.springframework.web.bind.annotation.*;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.UserRepository;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.service.EntityCacheService;
+import com.university.skillshare_backend.service.InsightsReconciliationService;
+import com.university.skillshare_backend.service.LikeService;
+import com.university.skillshare_backend.service.NotificationCounterService;
+import com.university.skillshare_backend.service.NotificationWriter;
+import com.university.skillshare_backend.service.TimelineService;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -15,6 +23,24 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private EntityCacheService entityCacheService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private InsightsReconciliationService reconciliationService;
+    
+    @Autowired
+    private NotificationWriter notificationWriter;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private NotificationCounterService notificationCounterService;
+    
     @PutMapping("/users/{userId}/verify")
     public ResponseEntity<?> verifyUser(@PathVariable String userId) {
         User user = userRepository.findById(userId)
@@ -38,4 +64,69 @@ public class AdminController {
         
         return ResponseEntity.ok().build();
     }
+    
+    /**
+     * Hit/miss/eviction statistics of the entity caches
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(entityCacheService.getStats());
+    }
+    
+    /**
+     * Latency percentiles of the like and unlike endpoints
+     */
+    @GetMapping("/metrics/likes")
+    public ResponseEntity<Map<String, Map<String, Object>>> getLikeLatency() {
+        return ResponseEntity.ok(likeService.getLatencyStats());
+    }
+    
+    /**
+     * Start a new like/unlike latency measurement, e.g. before a load test
+     */
+    @DeleteMapping("/metrics/likes")
+    public ResponseEntity<?> resetLikeLatency() {
+        likeService.resetLatencyStats();
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Queue depth, overflow counts and batch sizes of the background notification writer
+     */
+    @GetMapping("/metrics/notifications")
+    public ResponseEntity<Map<String, Object>> getNotificationWriterStats() {
+        return ResponseEntity.ok(notificationWriter.getStats());
+    }
+    
+    /**
+     * Recount a user's unread notifications and overwrite their counter, e.g. after it drifted
+     */
+    @PostMapping("/notifications/counters/{userId}/recount")
+    public ResponseEntity<Map<String, Object>> recountUnreadNotifications(@PathVariable String userId) {
+        return ResponseEntity.ok(Map.of("userId", userId, "unread", notificationCounterService.recount(userId)));
+    }
+    
+    /**
+     * Backfill the home timelines of users who followed people before timelines existed
+     */
+    @PostMapping("/timelines/backfill")
+    public ResponseEntity<Map<String, Object>> backfillTimelines() {
+        return ResponseEntity.ok(timelineService.backfillTimelines());
+    }
+    
+    /**
+     * Drift found and corrected by the last insights reconciliation run
+     */
+    @GetMapping("/insights/reconciliation")
+    public ResponseEntity<Map<String, Object>> getReconciliationStats() {
+        return ResponseEntity.ok(reconciliationService.getLastRun());
+    }
+    
+    /**
+     * Reconcile all post insights now instead of waiting for the nightly run
+     */
+    @PostMapping("/insights/reconciliation")
+    public ResponseEntity<Map<String, Object>> runReconciliation() {
+        return ResponseEntity.ok(reconciliationService.reconcile());
+    }
 }
@@ -15,6 +15,7 @@ import com.university.skillshare_backend.dto.RegisterRequest;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.UserRepository;
 import com.university.skillshare_backend.service.SessionService;
+import com.university.skillshare_backend.service.UserDirectoryService;
 import com.university.skillshare_backend.model.Session;
 
 import java.util.HashMap;
@@ -29,11 +30,13 @@ public class AuthController {
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final SessionService sessionService;
+    private final UserDirectoryService userDirectoryService;
     
     @Autowired
-    public AuthController(UserRepository userRepository, SessionService sessionService) {
+    public AuthController(UserRepository userRepository, SessionService sessionService, UserDirectoryService userDirectoryService) {
         this.userRepository = userRepository;
         this.sessionService = sessionService;
+        this.userDirectoryService = userDirectoryService;
         this.passwordEncoder = new BCryptPasswordEncoder();
     }
     
@@ -64,6 +67,7 @@ public class AuthController {
         user.setSpecializations(registerRequest.getSpecializations());
         
         User savedUser = userRepository.save(user);
+        userDirectoryService.put(savedUser);
         
         // Hide password in response
         savedUser.setPassword(null);
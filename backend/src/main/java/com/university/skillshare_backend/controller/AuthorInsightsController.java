@@ -0,0 +1,49 @@
+package com.university.skillshare_backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.AuthorInsights;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.AuthorInsightsService;
+
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin(origins = "*")
+public class AuthorInsightsController {
+
+    private final AuthorInsightsService authorInsightsService;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public AuthorInsightsController(AuthorInsightsService authorInsightsService, UserRepository userRepository) {
+        this.authorInsightsService = authorInsightsService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get engagement totals over all of a user's posts
+     *
+     * @param userId User ID
+     * @return The user's rollup; changes reach it within the flush interval
+     */
+    @GetMapping("/{userId}/insights")
+    public ResponseEntity<AuthorInsights> getAuthorInsights(@PathVariable String userId) {
+        userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        return ResponseEntity.ok(authorInsightsService.getAuthorInsights(userId));
+    }
+
+    /**
+     * Recompute a user's rollup from their posts' insights
+     */
+    @PostMapping("/{userId}/insights/rebuild")
+    public ResponseEntity<AuthorInsights> rebuildAuthorInsights(@PathVariable String userId) {
+        userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        authorInsightsService.rebuild(userId);
+        return ResponseEntity.ok(authorInsightsService.getAuthorInsights(userId));
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.university.skillshare_backend.dto.CursorPage;
 import com.university.skillshare_backend.model.Comment;
 import com.university.skillshare_backend.service.CommentService;
 
@@ -51,6 +52,49 @@ public class CommentController {
         return new ResponseEntity<>(newComment, HttpStatus.CREATED);
     }
     
+    /**
+     * Reply to a comment
+     * 
+     * @param postId The post ID
+     * @param commentId The comment replied to
+     * @param userId The user ID (from auth token in a real app)
+     * @param commentRequest Request body containing text
+     * @return The created reply
+     */
+    @PostMapping("/posts/{postId}/comments/{commentId}/replies")
+    public ResponseEntity<Comment> addReply(
+            @PathVariable String postId,
+            @PathVariable String commentId,
+            @RequestParam String userId, // In a real app, get from auth token
+            @RequestBody Map<String, String> commentRequest) {
+        
+        Comment reply = commentService.addReply(postId, commentId, userId, commentRequest.get("text"));
+        
+        return new ResponseEntity<>(reply, HttpStatus.CREATED);
+    }
+    
+    /**
+     * Get a post's comments as a thread, each comment followed by its replies
+     * 
+     * @param postId The post ID
+     * @return Comments in thread order, with their depth
+     */
+    @GetMapping("/posts/{postId}/comments/thread")
+    public ResponseEntity<List<Comment>> getThread(@PathVariable String postId) {
+        return ResponseEntity.ok(commentService.getThread(postId));
+    }
+    
+    /**
+     * Get a comment and all replies below it
+     * 
+     * @param commentId The comment ID
+     * @return The comment, then its replies in thread order
+     */
+    @GetMapping("/comments/{commentId}/replies")
+    public ResponseEntity<List<Comment>> getSubtree(@PathVariable String commentId) {
+        return ResponseEntity.ok(commentService.getSubtree(commentId));
+    }
+    
     /**
      * Edit a comment
      * 
@@ -72,7 +116,7 @@ public class CommentController {
     }
     
     /**
-     * Delete a comment
+     * Delete a comment and its replies
      * 
      * @param commentId The comment ID
      * @param userId The user ID (from auth token in a real app)
@@ -94,14 +138,31 @@ public class CommentController {
     }
     
     /**
-     * Get all comments for a post
+     * Get a post's comments one page at a time
      * 
      * @param postId The post ID
-     * @return List of comments
+     * @param cursor nextCursor of the previous page; omit for the first page
+     * @param limit Page size (max 100)
+     * @param order "oldest" (default) or "newest"
+     * @param details Whether to include each commenter's username and full name
+     * @param sequence Start the page at this comment number (e.g. from a notification) instead of at the cursor
+     * @return The page and the cursor of the next one
      */
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<Comment>> getCommentsByPostId(@PathVariable String postId) {
-        List<Comment> comments = commentService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<CursorPage<?>> getCommentsPage(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = CommentService.OLDEST_FIRST) String order,
+            @RequestParam(defaultValue = "false") boolean details,
+            @RequestParam(required = false) Long sequence) {
+        if (sequence != null) {
+            CursorPage<Comment> page = commentService.getCommentsPageAt(postId, sequence, limit, order);
+            return ResponseEntity.ok(details ? commentService.withUserDetails(page) : page);
+        }
+        if (details) {
+            return ResponseEntity.ok(commentService.getCommentsPageWithUserDetails(postId, cursor, limit, order));
+        }
+        return ResponseEntity.ok(commentService.getCommentsPage(postId, cursor, limit, order));
     }
 }
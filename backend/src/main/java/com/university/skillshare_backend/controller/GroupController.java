@@ -4,11 +4,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.university.skillshare_backend.dto.UserSummary;
 import com.university.skillshare_backend.model.Group;
 import com.university.skillshare_backend.model.GroupMembership;
 import com.university.skillshare_backend.model.GroupPost;
 import com.university.skillshare_backend.model.Post;
-import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.service.GroupService;
 import java.util.List;
 import java.util.Map;
@@ -180,8 +180,8 @@ public class GroupController {
     }
 
     @GetMapping("/{groupId}/members")
-    public ResponseEntity<List<User>> getGroupMembers(@PathVariable String groupId) {
-        List<User> members = groupService.getGroupMembers(groupId);
+    public ResponseEntity<List<UserSummary>> getGroupMembers(@PathVariable String groupId) {
+        List<UserSummary> members = groupService.getGroupMembers(groupId);
         return ResponseEntity.ok(members);
     }
 }
@@ -1,12 +1,16 @@
 package com.university.skillshare_backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.university.skillshare_backend.dto.CursorPage;
 import com.university.skillshare_backend.model.Notification;
 import com.university.skillshare_backend.service.NotificationService;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,8 +28,11 @@ public class NotificationController {
     }
     
     /**
-     * Get all notifications for a user
+     * Get a user's newest notifications, at most 100 of them
+     * 
+     * @deprecated Use /user/{userId}/inbox, which pages through all of them
      */
+    @Deprecated
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Notification>> getUserNotifications(@PathVariable String userId) {
         List<Notification> notifications = notificationService.getUserNotifications(userId);
@@ -33,8 +40,31 @@ public class NotificationController {
     }
     
     /**
-     * Get unread notifications for a user
+     * Get a user's notifications one page at a time, newest first
+     * 
+     * @param cursor nextCursor of the previous page; omit for the first page
+     * @param limit Page size (max 100)
+     * @param unreadOnly Only unread notifications
+     * @param unreadFirst List all unread notifications before the read ones
+     * @param types Only these types (e.g. COMMENT,MENTION); omit for all
      */
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<CursorPage<Notification>> getInbox(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + NotificationService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(defaultValue = "true") boolean unreadFirst,
+            @RequestParam(required = false) List<Notification.NotificationType> types) {
+        return ResponseEntity.ok(notificationService.getInbox(userId, cursor, limit, unreadOnly, unreadFirst, types));
+    }
+    
+    /**
+     * Get a user's newest unread notifications, at most 100 of them
+     * 
+     * @deprecated Use /user/{userId}/inbox?unreadOnly=true, which pages through all of them
+     */
+    @Deprecated
     @GetMapping("/user/{userId}/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications(@PathVariable String userId) {
         List<Notification> notifications = notificationService.getUnreadNotifications(userId);
@@ -42,7 +72,8 @@ public class NotificationController {
     }
     
     /**
-     * Get unread notification count
+     * Get unread notification count. Clients subscribed to
+     * /user/topic/notifications/unread-count get every change pushed instead of polling.
      */
     @GetMapping("/user/{userId}/unread/count")
     public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable String userId) {
@@ -74,10 +105,75 @@ public class NotificationController {
      * Mark all notifications as read for a user
      */
     @PutMapping("/user/{userId}/read-all")
-    public ResponseEntity<Map<String, String>> markAllAsRead(@PathVariable String userId) {
-        notificationService.markAllAsRead(userId);
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> markAllAsRead(@PathVariable String userId) {
+        long modified = notificationService.markAllAsRead(userId);
+        Map<String, Object> response = new HashMap<>();
         response.put("message", "All notifications marked as read");
+        response.put("modified", modified);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Mark some of a user's notifications as read
+     * 
+     * @param body {"ids": [notification IDs]}
+     */
+    @PutMapping("/user/{userId}/read")
+    public ResponseEntity<Map<String, Object>> markManyAsRead(
+            @PathVariable String userId,
+            @RequestBody Map<String, List<String>> body) {
+        long modified = notificationService.setRead(userId, body.get("ids"), true);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Notifications marked as read");
+        response.put("modified", modified);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Mark some of a user's notifications as unread
+     * 
+     * @param body {"ids": [notification IDs]}
+     */
+    @PutMapping("/user/{userId}/unread")
+    public ResponseEntity<Map<String, Object>> markManyAsUnread(
+            @PathVariable String userId,
+            @RequestBody Map<String, List<String>> body) {
+        long modified = notificationService.setRead(userId, body.get("ids"), false);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Notifications marked as unread");
+        response.put("modified", modified);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Delete some of a user's notifications
+     * 
+     * @param body {"ids": [notification IDs]}
+     */
+    @PostMapping("/user/{userId}/delete")
+    public ResponseEntity<Map<String, Object>> deleteNotifications(
+            @PathVariable String userId,
+            @RequestBody Map<String, List<String>> body) {
+        long deleted = notificationService.deleteNotifications(userId, body.get("ids"));
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Notifications deleted successfully");
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Delete a user's notifications created before a date
+     * 
+     * @param before ISO date-time, e.g. 2024-01-01T00:00:00Z
+     */
+    @DeleteMapping("/user/{userId}")
+    public ResponseEntity<Map<String, Object>> deleteNotificationsBefore(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant before) {
+        long deleted = notificationService.deleteNotificationsBefore(userId, Date.from(before));
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Notifications deleted successfully");
+        response.put("deleted", deleted);
         return ResponseEntity.ok(response);
     }
     
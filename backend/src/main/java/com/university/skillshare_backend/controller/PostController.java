@@ -3,18 +3,29 @@ package com.university.skillshare_backend.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
 
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.dto.PostCard;
+import com.university.skillshare_backend.dto.PostCardRequest;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.exception.UnauthorizedException;
 import com.university.skillshare_backend.model.Post;
 import com.university.skillshare_backend.repository.PostRepository;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.service.AuthorInsightsService;
+import com.university.skillshare_backend.service.PostCardService;
+import com.university.skillshare_backend.service.PostSearchService;
+import com.university.skillshare_backend.service.PostService;
+import com.university.skillshare_backend.service.TimelineService;
+import com.university.skillshare_backend.service.TrendingService;
 
 import java.io.File;
 import java.io.IOException;
@@ -35,11 +46,31 @@ public class PostController implements WebMvcConfigurer {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PostService postService;
+    private final TimelineService timelineService;
+    private final PostCardService postCardService;
+    private final PostSearchService postSearchService;
+    private final TrendingService trendingService;
+    private final AuthorInsightsService authorInsightsService;
     
     @Autowired
-    public PostController(PostRepository postRepository, UserRepository userRepository) {
+    public PostController(
+            PostRepository postRepository,
+            UserRepository userRepository,
+            PostService postService,
+            TimelineService timelineService,
+            PostCardService postCardService,
+            PostSearchService postSearchService,
+            TrendingService trendingService,
+            AuthorInsightsService authorInsightsService) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.postService = postService;
+        this.timelineService = timelineService;
+        this.postCardService = postCardService;
+        this.postSearchService = postSearchService;
+        this.trendingService = trendingService;
+        this.authorInsightsService = authorInsightsService;
     }
     
     /**
@@ -55,18 +86,84 @@ public class PostController implements WebMvcConfigurer {
             .orElseThrow(() -> new ResourceNotFoundException("User", "id", post.getUserId()));
             
         Post savedPost = postRepository.save(post);
+        
+        // Push the post into the followers' home timelines
+        timelineService.onPostCreated(savedPost);
+        postSearchService.indexPost(savedPost);
+        authorInsightsService.onPostCreated(savedPost);
+        
         return new ResponseEntity<>(savedPost, HttpStatus.CREATED);
     }
     
     /**
-     * Get all posts
+     * Get posts, newest first, one page at a time
      * 
-     * @return List of posts
+     * @param cursor nextCursor of the previous page (omit for the first page)
+     * @param limit Page size (max 100)
+     * @return Page of posts and the cursor of the next page
      */
     @GetMapping("/posts")
-    public ResponseEntity<List<Post>> getAllPosts() {
-        List<Post> posts = postRepository.findAll();
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<CursorPage<Post>> getAllPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PostService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(postService.getPostsPage(cursor, limit));
+    }
+    
+    /**
+     * Stream posts, newest first, as newline-delimited JSON
+     * 
+     * @param cursor Cursor to start after (omit to start from the newest post)
+     * @param limit Maximum number of posts (omit for all)
+     * @return One JSON post per line
+     */
+    @GetMapping(value = "/posts/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        StreamingResponseBody body = out -> postService.streamPosts(cursor, limit, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
+    /**
+     * Get feed cards (post, author, like/comment counts, hasLiked, insights) for many posts at once
+     * 
+     * @param request Post IDs (max 100) and the viewing user's ID
+     * @return Cards in the order of the requested IDs; unknown IDs are skipped
+     */
+    @PostMapping("/posts/cards")
+    public ResponseEntity<List<PostCard>> getPostCards(@RequestBody PostCardRequest request) {
+        return ResponseEntity.ok(postCardService.getPostCards(request.getPostIds(), request.getViewerId()));
+    }
+    
+    /**
+     * Search posts by title and content
+     * 
+     * @param q Search terms; the last one also matches as a prefix
+     * @param page Page number (0-based)
+     * @param size Page size (max 50)
+     * @return Matching posts ranked by relevance, with the total number of matches
+     */
+    @GetMapping("/posts/search")
+    public ResponseEntity<Map<String, Object>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + PostSearchService.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(postSearchService.search(q, page, size));
+    }
+    
+    /**
+     * Get the posts trending right now, from in-memory scores (no database query).
+     * Use /posts/cards to load the posts themselves.
+     * 
+     * @param limit Number of posts (max 100)
+     * @return Post IDs with their trending scores, highest first
+     */
+    @GetMapping("/posts/trending")
+    public ResponseEntity<List<Map<String, Object>>> getTrendingPosts(
+            @RequestParam(defaultValue = "" + TrendingService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(trendingService.getTrending(limit));
     }
     
     /**
@@ -187,6 +284,7 @@ public class PostController implements WebMvcConfigurer {
             existingPost.setUserId(userId);
             
             Post saved = postRepository.save(existingPost);
+            postSearchService.indexPost(saved);
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
@@ -211,7 +309,12 @@ public class PostController implements WebMvcConfigurer {
                 throw new UnauthorizedException("Not authorized to delete this post");
             }
             
+            // Read the post's insights before they can go stale
+            authorInsightsService.onPostDeleted(post);
             postRepository.delete(post);
+            timelineService.onPostDeleted(post);
+            postSearchService.removePost(postId);
+            trendingService.removePost(postId);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Post deleted successfully");
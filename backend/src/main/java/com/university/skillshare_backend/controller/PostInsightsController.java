@@ -1,9 +1,15 @@
 package com.university.skillshare_backend.controller;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.university.skillshare_backend.model.PostInsights;
+import com.university.skillshare_backend.service.InsightsTimeSeriesService;
 import com.university.skillshare_backend.service.PostInsightsService;
 
 @RestController
@@ -14,17 +20,52 @@ public class PostInsightsController {
     @Autowired
     private PostInsightsService insightsService;
 
+    @Autowired
+    private InsightsTimeSeriesService timeSeriesService;
+
     @GetMapping("/{postId}/insights")
     public ResponseEntity<PostInsights> getInsights(@PathVariable String postId) {
         PostInsights insights = insightsService.getInsights(postId);
         return ResponseEntity.ok(insights);
     }
 
+    /**
+     * Record a view. Views are counted in memory and written in batches, so the
+     * new totals arrive on /topic/insights/{postId} rather than in the response.
+     */
     @PostMapping("/{postId}/views")
-    public ResponseEntity<PostInsights> recordView(
+    public ResponseEntity<Void> recordView(
             @PathVariable String postId,
             @RequestParam String viewerId) {
         insightsService.incrementViews(postId, viewerId);
-        return ResponseEntity.ok(insightsService.getInsights(postId));
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Recount the post's likes and comments and repair its counters
+     */
+    @PostMapping("/{postId}/insights/sync")
+    public ResponseEntity<PostInsights> syncInsights(@PathVariable String postId) {
+        return ResponseEntity.ok(insightsService.syncInsights(postId));
+    }
+
+    /**
+     * Get the post's views, unique viewers, likes, comments and shares over time
+     *
+     * @param from Start of the range, ISO-8601 (default: 24 hours or 30 days before to)
+     * @param to End of the range, ISO-8601 (default: now)
+     * @param granularity "hour" (range up to 31 days) or "day" (up to 366 days)
+     * @return One point per hour or day, in UTC
+     */
+    @GetMapping("/{postId}/insights/timeseries")
+    public ResponseEntity<Map<String, Object>> getTimeSeries(
+            @PathVariable String postId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = InsightsTimeSeriesService.HOUR) String granularity) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+            : end.minus(InsightsTimeSeriesService.DAY.equals(granularity) ? Duration.ofDays(30) : Duration.ofHours(24));
+        return ResponseEntity.ok(timeSeriesService.getSeries(postId, start, end, granularity));
     }
 }
@@ -0,0 +1,39 @@
+package com.university.skillshare_backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.service.PostService;
+import com.university.skillshare_backend.service.TimelineService;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class TimelineController {
+
+    private final TimelineService timelineService;
+
+    @Autowired
+    public TimelineController(TimelineService timelineService) {
+        this.timelineService = timelineService;
+    }
+
+    /**
+     * Get the home feed of a user: posts from the users they follow, newest first
+     * 
+     * @param userId User ID
+     * @param cursor nextCursor of the previous page (omit for the first page)
+     * @param limit Page size (max 100)
+     * @return Page of posts and the cursor of the next page
+     */
+    @GetMapping("/users/{userId}/feed")
+    public ResponseEntity<CursorPage<Post>> getFeed(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PostService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(timelineService.getFeed(userId, cursor, limit));
+    }
+}
@@ -5,11 +5,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.university.skillshare_backend.dto.UserSummary;
 import com.university.skillshare_backend.dto.UserUpdateRequest;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.UserRepository;
 import com.university.skillshare_backend.repository.FollowRepository;
+import com.university.skillshare_backend.service.UserDirectoryService;
 
 import java.util.HashMap;
 import java.util.List;
@@ -22,11 +24,13 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
+    private final UserDirectoryService userDirectoryService;
     
     @Autowired
-    public UserController(UserRepository userRepository, FollowRepository followRepository) {
+    public UserController(UserRepository userRepository, FollowRepository followRepository, UserDirectoryService userDirectoryService) {
         this.userRepository = userRepository;
         this.followRepository = followRepository;
+        this.userDirectoryService = userDirectoryService;
     }
     
     /**
@@ -38,24 +42,23 @@ public class UserController {
     @PostMapping("/users")
     public ResponseEntity<User> createUser(@RequestBody User user) {
         User savedUser = userRepository.save(user);
+        userDirectoryService.put(savedUser);
         return new ResponseEntity<>(savedUser, HttpStatus.CREATED);
     }
     
     /**
-     * Search for users by username fragment (for @mentions)
+     * Autocomplete users by username or name prefix (for @mentions).
+     * Answered from memory, so it can be called on every keystroke.
      * 
-     * @param query Username fragment to search
-     * @return List of matching users
+     * @param query What has been typed so far
+     * @param limit Maximum number of users (max 50)
+     * @return Matching users, username matches first
      */
     @GetMapping("/users/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String query) {
-        List<User> users = userRepository.findByUsernameContainingIgnoreCase(query);
-        // Only return necessary fields
-        users.forEach(user -> {
-            user.setPassword(null);
-            user.setEmail(null);
-        });
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserSummary>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "" + UserDirectoryService.DEFAULT_SEARCH_LIMIT) int limit) {
+        return ResponseEntity.ok(userDirectoryService.search(query, limit));
     }
     
     /**
@@ -149,6 +152,7 @@ public class UserController {
         }
         
         User updatedUser = userRepository.save(existingUser);
+        userDirectoryService.put(updatedUser);
         updatedUser.setPassword(null); // Don't return password
         
         return ResponseEntity.ok(updatedUser);
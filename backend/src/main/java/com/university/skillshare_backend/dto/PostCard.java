@@ -0,0 +1,65 @@
+package com.university.skillshare_backend.dto;
+
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.PostInsights;
+
+/**
+ * Everything the feed needs to render one post
+ */
+public class PostCard {
+    private Post post;
+    private UserSummary author;
+    private long likeCount;
+    private long commentCount;
+    private boolean hasLiked;
+    private PostInsights insights;
+    
+    // Getters and setters
+    public Post getPost() {
+        return post;
+    }
+    
+    public void setPost(Post post) {
+        this.post = post;
+    }
+    
+    public UserSummary getAuthor() {
+        return author;
+    }
+    
+    public void setAuthor(UserSummary author) {
+        this.author = author;
+    }
+    
+    public long getLikeCount() {
+        return likeCount;
+    }
+    
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+    
+    public long getCommentCount() {
+        return commentCount;
+    }
+    
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+    
+    public boolean isHasLiked() {
+        return hasLiked;
+    }
+    
+    public void setHasLiked(boolean hasLiked) {
+        this.hasLiked = hasLiked;
+    }
+    
+    public PostInsights getInsights() {
+        return insights;
+    }
+    
+    public void setInsights(PostInsights insights) {
+        this.insights = insights;
+    }
+}
@@ -0,0 +1,25 @@
+package com.university.skillshare_backend.dto;
+
+import java.util.List;
+
+public class PostCardRequest {
+    private List<String> postIds;
+    private String viewerId;
+    
+    // Getters and setters
+    public List<String> getPostIds() {
+        return postIds;
+    }
+    
+    public void setPostIds(List<String> postIds) {
+        this.postIds = postIds;
+    }
+    
+    public String getViewerId() {
+        return viewerId;
+    }
+    
+    public void setViewerId(String viewerId) {
+        this.viewerId = viewerId;
+    }
+}
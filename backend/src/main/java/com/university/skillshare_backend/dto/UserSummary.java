@@ -0,0 +1,60 @@
+package com.university.skillshare_backend.dto;
+
+import com.university.skillshare_backend.model.User;
+
+/**
+ * Public fields of a user, used wherever a response only needs to show who someone is
+ */
+public class UserSummary {
+    private String id;
+    private String username;
+    private String fullName;
+    private String profileImage;
+    
+    public UserSummary() {
+    }
+    
+    public UserSummary(String id, String username, String fullName, String profileImage) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.profileImage = profileImage;
+    }
+    
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getFullName(), user.getProfileImage());
+    }
+    
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getFullName() {
+        return fullName;
+    }
+    
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+    
+    public String getProfileImage() {
+        return profileImage;
+    }
+    
+    public void setProfileImage(String profileImage) {
+        this.profileImage = profileImage;
+    }
+}
@@ -0,0 +1,44 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * Engagement totals over all posts of one author, maintained by AuthorInsightsService
+ */
+@Data
+@Document(collection = "author_insights")
+public class AuthorInsights {
+    @MongoId(FieldType.STRING)
+    private String userId;
+    private long postCount;
+    private long views;
+    // Sum of the posts' unique viewers (a viewer of two posts counts twice)
+    private long uniqueViewers;
+    private long likeCount;
+    private long commentCount;
+    private long shareCount;
+    // Engagement-rate range (e.g. "5-10", in percent) to number of posts in it
+    private Map<String, Long> engagementRateHistogram;
+    private Date updatedAt;
+    // (likes + comments + shares) / views over all posts, computed when read
+    @Transient
+    private double engagementRate;
+
+    public AuthorInsights() {
+        this.engagementRateHistogram = new LinkedHashMap<>();
+    }
+
+    public AuthorInsights(String userId) {
+        this();
+        this.userId = userId;
+    }
+}
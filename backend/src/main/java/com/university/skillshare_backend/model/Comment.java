@@ -3,12 +3,20 @@ package com.university.skillshare_backend.model;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 
 @Data
 @Document(collection = "comments")
+// Serves keyset pages of a post's comments in both directions; its postId prefix also serves lookups and counts by post
+@CompoundIndex(name = "postId_createdAt_id", def = "{'postId': 1, 'createdAt': 1, '_id': 1}")
+// Finds a comment by its number; comments from before numbering have none and are left out
+@CompoundIndex(name = "postId_sequence", def = "{'postId': 1, 'sequence': 1}", unique = true,
+    partialFilter = "{ 'sequence': { $exists: true } }")
+// Reads a whole thread, or one comment's subtree, as a single range of paths
+@CompoundIndex(name = "postId_path", def = "{'postId': 1, 'path': 1}")
 public class Comment {
     @Id
     private String id;
@@ -16,6 +24,18 @@ public class Comment {
     private String userId;
     private String text;
     private LocalDateTime createdAt;
+    // Number of the comment within its post (1, 2, ...), never reused
+    private Long sequence;
+    // The comment replied to; null for a top-level comment
+    private String parentId;
+    // Materialized path: one fixed-width segment per ancestor and one for this comment,
+    // e.g. "0000000003/0000000012/". Sorting by path lists a thread depth first, and a
+    // comment's subtree is every path starting with its own.
+    private String path;
+    // 0 for a top-level comment
+    private int depth;
+    // Number of direct replies
+    private int replyCount;
     
     // Default constructor
     public Comment() {
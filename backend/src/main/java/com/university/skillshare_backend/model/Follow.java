@@ -1,11 +1,17 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 
 @Data
 @Document(collection = "follows")
+@CompoundIndexes({
+    @CompoundIndex(name = "followerId_followedId", def = "{'followerId': 1, 'followedId': 1}"),
+    @CompoundIndex(name = "followedId_followerId", def = "{'followedId': 1, 'followerId': 1}")
+})
 public class Follow {
     @Id
     private String id;
@@ -0,0 +1,30 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * An author whose posts are merged into their followers' feeds when they are read
+ * instead of being pushed into their timelines. Shared by all instances, so they
+ * agree on how an author's posts reach the feeds.
+ */
+@Data
+@Document(collection = "high_fanout_authors")
+public class HighFanoutAuthor {
+    @MongoId(FieldType.STRING)
+    private String authorId;
+    private Date since;
+
+    public HighFanoutAuthor() {
+    }
+
+    public HighFanoutAuthor(String authorId) {
+        this.authorId = authorId;
+        this.since = new Date();
+    }
+}
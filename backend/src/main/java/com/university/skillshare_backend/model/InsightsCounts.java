@@ -0,0 +1,24 @@
+package com.university.skillshare_backend.model;
+
+import lombok.Data;
+
+/**
+ * Engagement of a post during one time bucket (an hour or a day).
+ * uniqueViewers counts viewers seen for the first time in the bucket, so buckets add up.
+ */
+@Data
+public class InsightsCounts {
+    private long views;
+    private long uniqueViewers;
+    private long likes;
+    private long comments;
+    private long shares;
+
+    public void add(InsightsCounts other) {
+        this.views += other.views;
+        this.uniqueViewers += other.uniqueViewers;
+        this.likes += other.likes;
+        this.comments += other.comments;
+        this.shares += other.shares;
+    }
+}
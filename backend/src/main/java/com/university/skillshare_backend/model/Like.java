@@ -1,12 +1,15 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import java.util.Date;
 
 @Data
 @Document(collection = "likes")
+// One like per user and post; makes the upsert in LikeService race-free
+@CompoundIndex(name = "postId_userId", def = "{'postId': 1, 'userId': 1}", unique = true)
 public class Like {
     @Id
     private String id;
@@ -1,7 +1,12 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
 import java.util.Map;
 import lombok.Data;
 
@@ -9,6 +14,12 @@ import java.util.Date;
 
 @Data
 @Document(collection = "notifications")
+// Inbox pages, newest first: unread (or read) ones are one index range per user, and
+// all of them a merge of the two ranges, with no in-memory sort
+@CompoundIndex(name = "userId_read_createdAt", def = "{'userId': 1, 'read': 1, 'createdAt': -1, '_id': -1}")
+// One collapsed notification per key; notifications that are not collapsed have none
+@CompoundIndex(name = "collapseKey", def = "{'collapseKey': 1}", unique = true,
+    partialFilter = "{ 'collapseKey': { $exists: true } }")
 public class Notification {
     
     public enum NotificationType {
@@ -42,6 +53,19 @@ public class Notification {
     
     private Map<String, String> metadata;
     
+    // Collapsed notifications: recipient, type, related item and time window they stand for
+    private String collapseKey;
+    
+    // Collapsed notifications: number of actors, and the names of the most recent ones
+    private Integer actorCount;
+    
+    private List<String> recentActors;
+    
+    // Collapsed notifications: IDs of the actors counted, most recent first (capped);
+    // the first ones are those of recentActors
+    @JsonIgnore
+    private List<String> actorIds;
+    
     // Constructors
     public Notification() {
         this.read = false;
@@ -133,4 +157,36 @@ public class Notification {
     public void setMetadata(Map<String, String> metadata) {
         this.metadata = metadata;
     }
+    
+    public String getCollapseKey() {
+        return collapseKey;
+    }
+    
+    public void setCollapseKey(String collapseKey) {
+        this.collapseKey = collapseKey;
+    }
+    
+    public Integer getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(Integer actorCount) {
+        this.actorCount = actorCount;
+    }
+    
+    public List<String> getRecentActors() {
+        return recentActors;
+    }
+    
+    public void setRecentActors(List<String> recentActors) {
+        this.recentActors = recentActors;
+    }
+    
+    public List<String> getActorIds() {
+        return actorIds;
+    }
+    
+    public void setActorIds(List<String> actorIds) {
+        this.actorIds = actorIds;
+    }
 }
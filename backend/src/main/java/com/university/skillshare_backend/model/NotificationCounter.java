@@ -0,0 +1,31 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * Number of unread notifications of a user, kept up to date as notifications are
+ * created, read and deleted so it never has to be counted
+ */
+@Data
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+    @MongoId(FieldType.STRING)
+    private String userId;
+    private long unread;
+    private Date updatedAt;
+
+    public NotificationCounter() {
+    }
+
+    public NotificationCounter(String userId, long unread) {
+        this.userId = userId;
+        this.unread = unread;
+        this.updatedAt = new Date();
+    }
+}
@@ -3,12 +3,20 @@ package com.university.skillshare_backend.model;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 
 @Data
 @Document(collection = "posts")
+@CompoundIndexes({
+    // Keyset pagination of the post listing: newest first, _id breaks ties
+    @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+    // Posts of one author (or a few authors via $in), newest first
+    @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Post {
     @Id
     private String id;
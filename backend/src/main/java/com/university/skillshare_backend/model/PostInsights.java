@@ -1,7 +1,9 @@
 package com.university.skillshare_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 @Data
@@ -9,6 +11,7 @@ import lombok.Data;
 public class PostInsights {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String postId;
     private int views;
     private int uniqueViewers;
@@ -16,6 +19,12 @@ public class PostInsights {
     private int commentCount;
     private int shareCount;
     private double engagementRate;
+    // HyperLogLog registers of the post's viewers, the source of uniqueViewers
+    @JsonIgnore
+    private byte[] viewerSketch;
+    // Bumped on every write of viewerSketch, so concurrent merges can detect each other
+    @JsonIgnore
+    private long viewerSketchVersion;
 
     public PostInsights(String postId) {
         this.postId = postId;
@@ -0,0 +1,31 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * Daily engagement of one post during one UTC month, rolled up from {@link PostInsightsHourly}
+ */
+@Data
+@Document(collection = "post_insights_daily")
+public class PostInsightsDaily {
+    // postId:yyyy-MM
+    @MongoId(FieldType.STRING)
+    private String id;
+    private String postId;
+    // Start of the month (UTC)
+    private Date month;
+    // Day of the month (1-31) to its counts
+    private Map<String, InsightsCounts> days;
+
+    public PostInsightsDaily() {
+        this.days = new HashMap<>();
+    }
+}
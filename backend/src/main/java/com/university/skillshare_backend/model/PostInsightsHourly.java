@@ -0,0 +1,42 @@
+package com.university.skillshare_backend.model;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * Hourly engagement of one post during one UTC day (bucket pattern: one document
+ * per post and day, one entry per hour that had activity).
+ * Rolled up into {@link PostInsightsDaily} once the day is over, and expired after 90 days.
+ */
+@Data
+@Document(collection = "post_insights_hourly")
+// Days still waiting to be rolled up
+@CompoundIndex(name = "rolledUp_day", def = "{'rolledUp': 1, 'day': 1}")
+public class PostInsightsHourly {
+    // postId:yyyy-MM-dd
+    @MongoId(FieldType.STRING)
+    private String id;
+    private String postId;
+    // Start of the day (UTC)
+    @Indexed(expireAfter = "90d")
+    private Date day;
+    // Hour of the day (0-23) to its counts
+    private Map<String, InsightsCounts> hours;
+    // Whether the current counts have been copied into the daily bucket
+    private boolean rolledUp;
+    // Incremented on every write of the counts
+    private long version;
+
+    public PostInsightsHourly() {
+        this.hours = new HashMap<>();
+    }
+}
@@ -0,0 +1,28 @@
+package com.university.skillshare_backend.model;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * A named counter handing out increasing numbers, e.g. "comments:{postId}" for the
+ * sequence numbers of a post's comments
+ */
+@Data
+@Document(collection = "sequences")
+public class Sequence {
+    @MongoId(FieldType.STRING)
+    private String id;
+    // The last number handed out
+    private long value;
+
+    public Sequence() {
+    }
+
+    public Sequence(String id, long value) {
+        this.id = id;
+        this.value = value;
+    }
+}
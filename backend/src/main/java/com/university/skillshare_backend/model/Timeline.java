@@ -0,0 +1,48 @@
+package com.university.skillshare_backend.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import lombok.Data;
+
+/**
+ * Bounded home timeline of a user, newest entry first.
+ * Entries are pushed here when an author the user follows creates a post.
+ */
+@Data
+@Document(collection = "timelines")
+// Removing a deleted post from every timeline that holds it
+@CompoundIndex(name = "entries_postId", def = "{'entries.postId': 1}")
+public class Timeline {
+    @MongoId(FieldType.STRING)
+    private String userId;
+    private List<Entry> entries;
+    // Holds the recent posts of everyone the user followed before timelines existed
+    private boolean backfilled;
+
+    public Timeline() {
+        this.entries = new ArrayList<>();
+    }
+
+    @Data
+    public static class Entry {
+        private String postId;
+        private String authorId;
+        private Date createdAt;
+
+        public Entry() {
+        }
+
+        public Entry(String postId, String authorId, Date createdAt) {
+            this.postId = postId;
+            this.authorId = authorId;
+            this.createdAt = createdAt;
+        }
+    }
+}
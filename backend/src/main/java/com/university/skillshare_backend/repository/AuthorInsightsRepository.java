@@ -0,0 +1,10 @@
+package com.university.skillshare_backend.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.university.skillshare_backend.model.AuthorInsights;
+
+@Repository
+public interface AuthorInsightsRepository extends MongoRepository<AuthorInsights, String> {
+}
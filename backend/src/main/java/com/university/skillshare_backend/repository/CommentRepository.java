@@ -18,4 +18,7 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
     
     // Count comments for a post
     long countByPostId(String postId);
+    
+    // Delete a comment, returning the number of comments deleted (0 if it was already gone)
+    long removeById(String id);
 }
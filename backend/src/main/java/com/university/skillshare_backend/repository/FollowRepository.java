@@ -2,6 +2,7 @@ package com.university.skillshare_backend.repository;
 
 import com.university.skillshare_backend.model.Follow;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface FollowRepository extends MongoRepository<Follow, String> {
@@ -9,6 +10,7 @@ public interface FollowRepository extends MongoRepository<Follow, String> {
     void deleteByFollowerIdAndFollowedId(String followerId, String followedId);
     List<Follow> findByFollowerId(String followerId);
     List<Follow> findByFollowedId(String followedId);
+    List<Follow> findByFollowerIdAndFollowedIdIn(String followerId, Collection<String> followedIds);
     long countByFollowerId(String followerId);
     long countByFollowedId(String followedId);
 }
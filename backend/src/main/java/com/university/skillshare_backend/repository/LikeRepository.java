@@ -8,6 +8,6 @@ import com.university.skillshare_backend.model.Like;
 @Repository
 public interface LikeRepository extends MongoRepository<Like, String> {
     Like findByPostIdAndUserId(String postId, String userId);
-    void deleteByPostIdAndUserId(String postId, String userId);
+    long deleteByPostIdAndUserId(String postId, String userId);
     long countByPostId(String postId);
 }
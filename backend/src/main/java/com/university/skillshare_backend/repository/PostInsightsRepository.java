@@ -1,12 +1,19 @@
 package com.university.skillshare_backend.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import com.university.skillshare_backend.model.PostInsights;
 
 @Repository
 public interface PostInsightsRepository extends MongoRepository<PostInsights, String> {
+    // Both leave out the viewer sketch (4 KB per post), which only the view flush needs
+    @Query(value = "{ 'postId': ?0 }", fields = "{ 'viewerSketch': 0 }")
     Optional<PostInsights> findByPostId(String postId);
+    @Query(value = "{ 'postId': { '$in': ?0 } }", fields = "{ 'viewerSketch': 0 }")
+    List<PostInsights> findByPostIdIn(Collection<String> postIds);
     void deleteByPostId(String postId);
 }
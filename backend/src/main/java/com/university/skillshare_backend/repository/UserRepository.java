@@ -1,9 +1,11 @@
 package com.university.skillshare_backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.university.skillshare_backend.model.User;
@@ -14,12 +16,11 @@ public interface UserRepository extends MongoRepository<User, String> {
     // Find a user by username
     Optional<User> findByUsername(String username);
     
+    // Find the users with the given usernames, with the fields of a UserSummary (for resolving mentions)
+    @Query(value = "{ 'username': { $in: ?0 } }", fields = "{ 'username': 1, 'fullName': 1, 'profileImage': 1 }")
+    List<User> findByUsernameIn(Collection<String> usernames);
+    
     // Find a user by email
     Optional<User> findByEmail(String email);
     
-    // Find users by username containing the given string (for mention suggestions)
-    List<User> findByUsernameContaining(String usernameFragment);
-
-    // Find users by username containing the given string, ignoring case (for mention suggestions)
-    List<User> findByUsernameContainingIgnoreCase(String usernameFragment);
 }
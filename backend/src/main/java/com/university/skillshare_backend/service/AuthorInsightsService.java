@@ -0,0 +1,296 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.AuthorInsights;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.repository.AuthorInsightsRepository;
+import com.university.skillshare_backend.repository.PostInsightsRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.service.InsightsTimeSeriesService.Metric;
+
+/**
+ * Per-author rollup of post insights, so an author's dashboard is a single read.
+ *
+ * Changes to post insights are summed in memory per post, resolved to their authors
+ * and written on a timer as one bulk $inc per chunk of authors that already have a
+ * rollup; the others get a full one built on first access. The engagement-rate
+ * histogram cannot be maintained from deltas (a post moving between ranges needs its
+ * previous rate), so it is recomputed by aggregation for the authors whose posts
+ * changed in that interval. {@link #rebuild} recomputes everything from the posts and
+ * their insights, and repairs any drift in the totals.
+ */
+@Service
+public class AuthorInsightsService {
+
+    // Upper bounds (exclusive) of the engagement-rate ranges, in percent; the last range is 50-100
+    private static final int[] RATE_BOUNDS = { 1, 5, 10, 25, 50 };
+    // Authors per bulk write and per aggregation
+    private static final int FLUSH_CHUNK_SIZE = 500;
+    private static final int POST_COUNT = Metric.values().length;
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorInsightsService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostRepository postRepository;
+    private final AuthorInsightsRepository authorInsightsRepository;
+    private final PostInsightsRepository postInsightsRepository;
+
+    // Not yet written, per Metric ordinal; author deltas also have a post count at POST_COUNT
+    private final ConcurrentHashMap<String, long[]> pendingByPost = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, long[]> pendingByAuthor = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuthorInsightsService(
+            MongoTemplate mongoTemplate,
+            PostRepository postRepository,
+            AuthorInsightsRepository authorInsightsRepository,
+            PostInsightsRepository postInsightsRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.postRepository = postRepository;
+        this.authorInsightsRepository = authorInsightsRepository;
+        this.postInsightsRepository = postInsightsRepository;
+    }
+
+    /**
+     * Count a change to a post's insights towards its author
+     */
+    public void record(String postId, Metric metric, long delta) {
+        if (delta != 0) {
+            add(pendingByPost, postId, metric.ordinal(), delta);
+        }
+    }
+
+    public void onPostCreated(Post post) {
+        add(pendingByAuthor, post.getUserId(), POST_COUNT, 1);
+    }
+
+    /**
+     * Take a deleted post and its engagement out of its author's totals
+     */
+    public void onPostDeleted(Post post) {
+        String authorId = post.getUserId();
+        add(pendingByAuthor, authorId, POST_COUNT, -1);
+        postInsightsRepository.findByPostId(post.getId()).ifPresent(insights -> {
+            add(pendingByAuthor, authorId, Metric.VIEWS.ordinal(), -insights.getViews());
+            add(pendingByAuthor, authorId, Metric.UNIQUE_VIEWERS.ordinal(), -insights.getUniqueViewers());
+            add(pendingByAuthor, authorId, Metric.LIKES.ordinal(), -insights.getLikeCount());
+            add(pendingByAuthor, authorId, Metric.COMMENTS.ordinal(), -insights.getCommentCount());
+            add(pendingByAuthor, authorId, Metric.SHARES.ordinal(), -insights.getShareCount());
+        });
+    }
+
+    /**
+     * Write pending changes to the authors' rollups and refresh their histograms
+     */
+    @Scheduled(fixedDelayString = "${author-insights.flush-interval-ms:10000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<String, long[]> byAuthor = drain(pendingByAuthor);
+        Map<String, long[]> byPost = drain(pendingByPost);
+        if (!byPost.isEmpty()) {
+            // Authors come from the entity cache; only uncached posts are queried
+            for (Post post : postRepository.findAllById(byPost.keySet())) {
+                long[] counts = byPost.get(post.getId());
+                long[] authorCounts = byAuthor.computeIfAbsent(post.getUserId(), k -> new long[POST_COUNT + 1]);
+                for (int i = 0; i < counts.length; i++) {
+                    authorCounts[i] += counts[i];
+                }
+            }
+        }
+        if (byAuthor.isEmpty()) {
+            return;
+        }
+
+        List<String> authorIds = new ArrayList<>(byAuthor.keySet());
+        for (int start = 0; start < authorIds.size(); start += FLUSH_CHUNK_SIZE) {
+            List<String> chunk = authorIds.subList(start, Math.min(start + FLUSH_CHUNK_SIZE, authorIds.size()));
+            try {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthorInsights.class);
+                for (String authorId : chunk) {
+                    long[] counts = byAuthor.get(authorId);
+                    Update update = new Update().set("updatedAt", new Date())
+                        .inc("postCount", counts[POST_COUNT])
+                        .inc("views", counts[Metric.VIEWS.ordinal()])
+                        .inc("uniqueViewers", counts[Metric.UNIQUE_VIEWERS.ordinal()])
+                        .inc("likeCount", counts[Metric.LIKES.ordinal()])
+                        .inc("commentCount", counts[Metric.COMMENTS.ordinal()])
+                        .inc("shareCount", counts[Metric.SHARES.ordinal()]);
+                    // Authors without a rollup yet are left to rebuild, which counts these changes
+                    ops.updateOne(Query.query(Criteria.where("_id").is(authorId)), update);
+                }
+                ops.execute();
+            } catch (Exception e) {
+                logger.error("Error writing insights of {} authors, retrying next flush: {}", chunk.size(), e.getMessage());
+                for (String authorId : chunk) {
+                    long[] counts = byAuthor.get(authorId);
+                    for (int i = 0; i < counts.length; i++) {
+                        add(pendingByAuthor, authorId, i, counts[i]);
+                    }
+                }
+                continue;
+            }
+            try {
+                refreshHistograms(chunk);
+            } catch (Exception e) {
+                logger.error("Error refreshing engagement histograms of {} authors: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get an author's rollup, building it on first access
+     */
+    public AuthorInsights getAuthorInsights(String userId) {
+        AuthorInsights insights = authorInsightsRepository.findById(userId)
+            .orElseGet(() -> rebuild(userId));
+        long engagements = insights.getLikeCount() + insights.getCommentCount() + insights.getShareCount();
+        insights.setEngagementRate(Math.min(100, engagements * 100.0 / Math.max(1, insights.getViews())));
+        return insights;
+    }
+
+    /**
+     * Recompute an author's rollup from their posts and the posts' insights.
+     * Changes still pending in memory may be counted twice until the next rebuild.
+     */
+    public AuthorInsights rebuild(String userId) {
+        AuthorInsights rebuilt = aggregate(List.of(userId)).getOrDefault(userId, emptyRollup(userId));
+        rebuilt.setUpdatedAt(new Date());
+        return authorInsightsRepository.save(rebuilt);
+    }
+
+    private void refreshHistograms(Collection<String> authorIds) {
+        Map<String, AuthorInsights> aggregated = aggregate(authorIds);
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuthorInsights.class);
+        for (String authorId : authorIds) {
+            AuthorInsights insights = aggregated.getOrDefault(authorId, emptyRollup(authorId));
+            ops.updateOne(Query.query(Criteria.where("_id").is(authorId)),
+                new Update().set("engagementRateHistogram", insights.getEngagementRateHistogram()));
+        }
+        ops.execute();
+    }
+
+    /**
+     * Totals and engagement-rate histogram per author, from posts joined to their insights
+     */
+    private Map<String, AuthorInsights> aggregate(Collection<String> authorIds) {
+        Document rateRange = new Document("$switch", new Document("branches", rateBranches())
+            .append("default", RATE_BOUNDS[RATE_BOUNDS.length - 1] + "-100"));
+
+        AggregationOperation toPostId = context -> new Document("$project",
+            new Document("userId", 1).append("postId", new Document("$toString", "$_id")));
+        AggregationOperation lookup = context -> new Document("$lookup", new Document("from", "post_insights")
+            .append("localField", "postId")
+            .append("foreignField", "postId")
+            // Leave out the viewer sketch
+            .append("pipeline", List.of(new Document("$project", new Document("views", 1).append("uniqueViewers", 1)
+                .append("likeCount", 1).append("commentCount", 1).append("shareCount", 1).append("engagementRate", 1))))
+            .append("as", "insights"));
+        AggregationOperation unwrap = context -> new Document("$project", new Document("userId", 1)
+            .append("i", new Document("$ifNull", List.of(new Document("$arrayElemAt", List.of("$insights", 0)), new Document()))));
+        AggregationOperation group = context -> new Document("$group", new Document("_id",
+                new Document("userId", "$userId").append("range", rateRange))
+            .append("posts", new Document("$sum", 1))
+            .append("views", sumOf("views"))
+            .append("uniqueViewers", sumOf("uniqueViewers"))
+            .append("likeCount", sumOf("likeCount"))
+            .append("commentCount", sumOf("commentCount"))
+            .append("shareCount", sumOf("shareCount")));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("userId").in(authorIds)),
+            toPostId, lookup, unwrap, group);
+
+        Map<String, AuthorInsights> results = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Post.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            AuthorInsights insights = results.computeIfAbsent(id.getString("userId"), this::emptyRollup);
+            long posts = number(row, "posts");
+            insights.setPostCount(insights.getPostCount() + posts);
+            insights.setViews(insights.getViews() + number(row, "views"));
+            insights.setUniqueViewers(insights.getUniqueViewers() + number(row, "uniqueViewers"));
+            insights.setLikeCount(insights.getLikeCount() + number(row, "likeCount"));
+            insights.setCommentCount(insights.getCommentCount() + number(row, "commentCount"));
+            insights.setShareCount(insights.getShareCount() + number(row, "shareCount"));
+            insights.getEngagementRateHistogram().merge(id.getString("range"), posts, Long::sum);
+        }
+        return results;
+    }
+
+    private AuthorInsights emptyRollup(String userId) {
+        AuthorInsights insights = new AuthorInsights(userId);
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        int lower = 0;
+        for (int bound : RATE_BOUNDS) {
+            histogram.put(lower + "-" + bound, 0L);
+            lower = bound;
+        }
+        histogram.put(lower + "-100", 0L);
+        insights.setEngagementRateHistogram(histogram);
+        return insights;
+    }
+
+    private static List<Document> rateBranches() {
+        List<Document> branches = new ArrayList<>();
+        int lower = 0;
+        for (int bound : RATE_BOUNDS) {
+            branches.add(new Document("case", new Document("$lt", List.of(new Document("$ifNull", List.of("$i.engagementRate", 0)), bound)))
+                .append("then", lower + "-" + bound));
+            lower = bound;
+        }
+        return branches;
+    }
+
+    private static Document sumOf(String field) {
+        return new Document("$sum", new Document("$ifNull", List.of("$i." + field, 0)));
+    }
+
+    private static long number(Document row, String field) {
+        Object value = row.get(field);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static void add(ConcurrentHashMap<String, long[]> pending, String key, int index, long delta) {
+        pending.compute(key, (k, counts) -> {
+            long[] updated = counts == null ? new long[POST_COUNT + 1] : counts;
+            updated[index] += delta;
+            return updated;
+        });
+    }
+
+    private static Map<String, long[]> drain(ConcurrentHashMap<String, long[]> pending) {
+        Map<String, long[]> drained = new HashMap<>();
+        Set<String> keys = pending.keySet();
+        for (String key : keys) {
+            long[] counts = pending.remove(key);
+            if (counts != null) {
+                drained.put(key, counts);
+            }
+        }
+        return drained;
+    }
+}
@@ -4,24 +4,45 @@ import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.dto.UserSummary;
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
 import com.university.skillshare_backend.model.Comment;
-import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.CommentRepository;
 import com.university.skillshare_backend.repository.PostRepository;
 import com.university.skillshare_backend.repository.UserRepository;
 import com.university.skillshare_backend.util.MentionParser;
+import com.university.skillshare_backend.util.PageCursor;
 
 @Service
 public class CommentService {
 
+    public static final String NEWEST_FIRST = "newest";
+    public static final String OLDEST_FIRST = "oldest";
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest reply level; top-level comments are depth 0
+    public static final int MAX_DEPTH = 8;
+    // Most comments returned for one thread or subtree
+    public static final int MAX_THREAD_SIZE = 1000;
+
+    // Digits per path segment; sequences are zero-padded so paths sort numerically
+    private static final int PATH_SEGMENT_DIGITS = 10;
+
     private static final Logger logger = LoggerFactory.getLogger(CommentService.class);
 
     private final CommentRepository commentRepository;
@@ -30,6 +51,13 @@ public class CommentService {
     private final MentionParser mentionParser;
     private final WebSocketService webSocketService;
     private final NotificationService notificationService;
+    private final MongoTemplate mongoTemplate;
+    private final UserSummaryLoader userSummaryLoader;
+    private final SequenceService sequenceService;
+    private final UserDirectoryService userDirectoryService;
+    
+    @Autowired
+    private PostInsightsService postInsightsService;
     
     @Autowired
     public CommentService(
@@ -38,13 +66,21 @@ public class CommentService {
             UserRepository userRepository,
             MentionParser mentionParser,
             WebSocketService webSocketService,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            MongoTemplate mongoTemplate,
+            UserSummaryLoader userSummaryLoader,
+            SequenceService sequenceService,
+            UserDirectoryService userDirectoryService) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.mentionParser = mentionParser;
         this.webSocketService = webSocketService;
         this.notificationService = notificationService;
+        this.mongoTemplate = mongoTemplate;
+        this.userSummaryLoader = userSummaryLoader;
+        this.sequenceService = sequenceService;
+        this.userDirectoryService = userDirectoryService;
     }
     
     /**
@@ -56,54 +92,80 @@ public class CommentService {
      * @return The saved comment
      */
     public Comment addComment(String postId, String userId, String text) {
+        return createComment(postId, userId, text, null);
+    }
+    
+    /**
+     * Reply to a comment
+     * 
+     * @param postId The post ID
+     * @param parentId The comment replied to, on the same post
+     * @param userId The user ID
+     * @param text The reply text
+     * @return The saved reply
+     */
+    public Comment addReply(String postId, String parentId, String userId, String text) {
+        Comment parent = commentRepository.findById(parentId)
+            .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", parentId));
+        if (!parent.getPostId().equals(postId)) {
+            throw new IllegalArgumentException("Comment " + parentId + " is not on post " + postId);
+        }
+        if (parent.getDepth() >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Replies can be nested at most " + MAX_DEPTH + " levels deep");
+        }
+        return createComment(postId, userId, text, withPath(parent));
+    }
+    
+    private Comment createComment(String postId, String userId, String text, Comment parent) {
         try {
-            // Verify post exists
-            postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+            // Verify post exists and get post owner
+            String postOwnerId = postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId))
+                .getUserId();
             
-            // Verify user exists
-            userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            // Verify user exists and get commenter details
+            String commenterName = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId))
+                .getUsername();
             
             // Parse mentions
             List<String> mentions = mentionParser.parseMentions(text);
             
-            // Create and save the comment
+            // Create and save the comment with the next number of the post's thread;
+            // posts with comments from before numbering continue after them
             Comment comment = new Comment(postId, userId, text);
+            comment.setSequence(sequenceService.next("comments:" + postId,
+                () -> commentRepository.countByPostId(postId)));
+            String segment = pathSegment(comment.getSequence(), null);
+            if (parent == null) {
+                comment.setPath(segment);
+            } else {
+                comment.setParentId(parent.getId());
+                comment.setPath(parent.getPath() + segment);
+                comment.setDepth(parent.getDepth() + 1);
+            }
             Comment savedComment = commentRepository.save(comment);
-            
-            // Get post owner and commenter details
-            String postOwnerId = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId))
-                .getUserId();
-            String commenterName = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId))
-                .getUsername();
 
-            // Get comment position
-            long commentPosition = commentRepository.countByPostId(postId);
+            postInsightsService.adjustComments(postId, 1);
 
-            // Send notification to post owner with position
+            // Send notification to post owner with the comment's position
             if (!userId.equals(postOwnerId)) {
-                notificationService.createCommentNotification(postOwnerId, commenterName, postId, (int)commentPosition);
+                notificationService.createCommentNotification(postOwnerId, commenterName, postId, savedComment);
             }
-
-            // Process mentions with position
-            for (String mentionedUsername : mentions) {
-                User mentionedUser = userRepository.findByUsername(mentionedUsername)
-                    .orElse(null);
-                if (mentionedUser != null && !mentionedUser.getId().equals(userId)) {
-                    notificationService.createMentionNotification(
-                        mentionedUser.getId(), 
-                        commenterName, 
-                        postId,
-                        (int)commentPosition
-                    );
-                }
+            if (parent != null && !parent.getUserId().equals(userId) && !parent.getUserId().equals(postOwnerId)) {
+                notificationService.createReplyNotification(parent.getUserId(), commenterName, postId, savedComment);
             }
 
+            // Notify mentioned users, with the comment's position
+            processMentions(mentions, savedComment, commenterName);
+
             // Broadcast the new comment via WebSocket
-            webSocketService.broadcastNewComment(postId, savedComment);
+            if (parent == null) {
+                webSocketService.broadcastNewComment(postId, savedComment);
+            } else {
+                long replyCount = adjustReplyCount(parent.getId(), 1);
+                webSocketService.broadcastNewReply(postId, parent.getId(), replyCount, savedComment);
+            }
             
             return savedComment;
         } catch (ResourceNotFoundException e) {
@@ -135,8 +197,9 @@ public class CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId))
                 .getUsername();
         
-        // Parse mentions from the updated text
-        List<String> mentions = mentionParser.parseMentions(text);
+        // Parse mentions from the updated text; users mentioned before the edit were already notified
+        List<String> mentions = new ArrayList<>(mentionParser.parseMentions(text));
+        mentions.removeAll(mentionParser.parseMentions(comment.getText()));
         
         // Update the comment
         comment.setText(text);
@@ -167,8 +230,19 @@ public class CommentService {
             throw new RuntimeException("You don't have permission to delete this comment");
         }
         
-        // Delete the comment
-        commentRepository.delete(comment);
+        // Delete the comment with its replies, in one range delete on the (postId, path) index
+        long deleted;
+        if (comment.getPath() != null) {
+            deleted = mongoTemplate.remove(subtreeQuery(comment), Comment.class).getDeletedCount();
+        } else {
+            deleted = commentRepository.removeById(commentId);
+        }
+        if (deleted > 0) {
+            postInsightsService.adjustComments(comment.getPostId(), (int) -deleted);
+            if (comment.getParentId() != null) {
+                adjustReplyCount(comment.getParentId(), -1);
+            }
+        }
         
         // Broadcast the deletion via WebSocket
         webSocketService.broadcastCommentUpdate(comment.getPostId(), 
@@ -176,38 +250,204 @@ public class CommentService {
     }
     
     /**
-     * Get all comments for a post
+     * Get a post's comments as a thread: depth first, each comment followed by its
+     * replies, oldest first at every level. Read with one range scan on the
+     * (postId, path) index; clients indent by depth.
      * 
      * @param postId The post ID
-     * @return List of comments
+     * @return Up to MAX_THREAD_SIZE comments
      */
-    public List<Comment> getCommentsByPostId(String postId) {
-        try {
-            // Verify post exists
-            postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-            
-            return commentRepository.findByPostId(postId);
-        } catch (ResourceNotFoundException e) {
-            logger.warn("Attempted to get comments for non-existent post {}", postId);
-            return Collections.emptyList(); // Return empty list instead of throwing error
+    public List<Comment> getThread(String postId) {
+        postRepository.findById(postId)
+            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        
+        Query query = Query.query(Criteria.where("postId").is(postId))
+            .with(Sort.by("path"))
+            .limit(MAX_THREAD_SIZE);
+        return mongoTemplate.find(query, Comment.class);
+    }
+    
+    /**
+     * Get a comment and all replies below it, in thread order
+     * 
+     * @param commentId The comment ID
+     * @return The comment first, then up to MAX_THREAD_SIZE - 1 replies
+     */
+    public List<Comment> getSubtree(String commentId) {
+        Comment comment = commentRepository.findById(commentId)
+            .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", commentId));
+        if (comment.getPath() == null) {
+            // Comments from before threading have no replies
+            return List.of(comment);
         }
+        return mongoTemplate.find(subtreeQuery(comment).with(Sort.by("path")).limit(MAX_THREAD_SIZE), Comment.class);
+    }
+    
+    /**
+     * All comments whose path starts with the comment's own, as an index range
+     */
+    private static Query subtreeQuery(Comment comment) {
+        return Query.query(Criteria.where("postId").is(comment.getPostId())
+            .and("path").gte(comment.getPath()).lt(comment.getPath() + Character.MAX_VALUE));
     }
     
     /**
-     * Get all comments for a post with user details
+     * Give a comment from before threading a path, so it can be replied to. Its segment
+     * sorts before all numbered comments, like the comment itself.
+     */
+    private Comment withPath(Comment comment) {
+        if (comment.getPath() != null) {
+            return comment;
+        }
+        String path = pathSegment(0, comment.getId());
+        mongoTemplate.updateFirst(
+            Query.query(Criteria.where("id").is(comment.getId()).and("path").exists(false)),
+            new Update().set("path", path),
+            Comment.class);
+        comment.setPath(path);
+        return comment;
+    }
+    
+    private static String pathSegment(long sequence, String id) {
+        String number = String.format("%0" + PATH_SEGMENT_DIGITS + "d", sequence);
+        return (id == null ? number : number + "-" + id) + "/";
+    }
+    
+    /**
+     * Atomically add to a comment's reply count
+     * 
+     * @return The reply count after the update, 0 if the comment is gone
+     */
+    private long adjustReplyCount(String commentId, int delta) {
+        Comment updated = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("id").is(commentId)),
+            new Update().inc("replyCount", delta),
+            FindAndModifyOptions.options().returnNew(true),
+            Comment.class);
+        return updated == null ? 0 : updated.getReplyCount();
+    }
+    
+    /**
+     * Get one page of a post's comments
      * 
      * @param postId The post ID
-     * @return List of comments with user details
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param order NEWEST_FIRST or OLDEST_FIRST
+     * @return The page and the cursor of the next one
      */
-    public List<Map<String, Object>> getCommentsByPostIdWithUserDetails(String postId) {
-        // Verify post exists
+    public CursorPage<Comment> getCommentsPage(String postId, String cursor, int limit, String order) {
         postRepository.findById(postId)
             .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
         
-        List<Comment> comments = commentRepository.findByPostId(postId);
-        List<Map<String, Object>> enrichedComments = new ArrayList<>();
+        return page(postId, PageCursor.decode(cursor), false, limit, isNewestFirst(order));
+    }
+    
+    /**
+     * Get the page of a post's comments that starts at a comment number, e.g. to open
+     * the thread at the comment a notification links to. The comment is found with
+     * one seek on the (postId, sequence) index, however long the thread is.
+     * 
+     * @param sequence Comment number; if that comment was deleted, the page starts at
+     * the next one in the given order
+     * @return The page and the cursor of the next one, as for {@link #getCommentsPage}
+     */
+    public CursorPage<Comment> getCommentsPageAt(String postId, long sequence, int limit, String order) {
+        postRepository.findById(postId)
+            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        
+        boolean newestFirst = isNewestFirst(order);
+        Criteria criteria = Criteria.where("postId").is(postId);
+        Query anchorQuery = Query.query(newestFirst
+                ? criteria.and("sequence").lte(sequence)
+                : criteria.and("sequence").gte(sequence))
+            .with(Sort.by(newestFirst ? Sort.Direction.DESC : Sort.Direction.ASC, "sequence"))
+            .limit(1);
+        Comment anchor = mongoTemplate.findOne(anchorQuery, Comment.class);
+        if (anchor == null) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+        return page(postId, PageCursor.of(anchor.getCreatedAt(), anchor.getId()), true, limit, newestFirst);
+    }
+    
+    /**
+     * Get one page of a post's comments with user details
+     * 
+     * @see #getCommentsPage(String, String, int, String)
+     */
+    public CursorPage<Map<String, Object>> getCommentsPageWithUserDetails(String postId, String cursor, int limit, String order) {
+        return withUserDetails(getCommentsPage(postId, cursor, limit, order));
+    }
+    
+    /**
+     * Add the commenters' usernames and names to a page of comments
+     */
+    public CursorPage<Map<String, Object>> withUserDetails(CursorPage<Comment> page) {
+        return new CursorPage<>(withUserDetails(page.getItems()), page.getNextCursor());
+    }
+    
+    /**
+     * @param inclusive Whether the page starts at the cursor's comment rather than after it
+     */
+    private CursorPage<Comment> page(String postId, PageCursor cursor, boolean inclusive, int limit, boolean newestFirst) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra comment to know whether another page exists
+        Query query = keysetQuery(postId, cursor, inclusive, newestFirst).limit(pageSize + 1);
+        List<Comment> comments = new ArrayList<>(mongoTemplate.find(query, Comment.class));
+        
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = new ArrayList<>(comments.subList(0, pageSize));
+            Comment last = comments.get(pageSize - 1);
+            nextCursor = PageCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(comments, nextCursor);
+    }
+    
+    /**
+     * Keyset query on the (postId, createdAt, _id) index: the cursor bounds createdAt,
+     * so a page is a range scan of the post's comments starting at the cursor
+     */
+    static Query keysetQuery(String postId, PageCursor cursor, boolean inclusive, boolean newestFirst) {
+        Criteria criteria = Criteria.where("postId").is(postId);
+        if (cursor != null) {
+            if (newestFirst) {
+                Criteria sameTime = inclusive
+                    ? Criteria.where("id").lte(cursor.getId())
+                    : Criteria.where("id").lt(cursor.getId());
+                criteria.and("createdAt").lte(cursor.getDate()).orOperator(
+                    Criteria.where("createdAt").lt(cursor.getDate()), sameTime);
+            } else {
+                Criteria sameTime = inclusive
+                    ? Criteria.where("id").gte(cursor.getId())
+                    : Criteria.where("id").gt(cursor.getId());
+                criteria.and("createdAt").gte(cursor.getDate()).orOperator(
+                    Criteria.where("createdAt").gt(cursor.getDate()), sameTime);
+            }
+        }
+        Sort.Direction direction = newestFirst ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Query.query(criteria).with(Sort.by(direction, "createdAt", "id"));
+    }
+    
+    private static boolean isNewestFirst(String order) {
+        if (order == null || NEWEST_FIRST.equalsIgnoreCase(order)) {
+            return true;
+        }
+        if (OLDEST_FIRST.equalsIgnoreCase(order)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Order must be '" + NEWEST_FIRST + "' or '" + OLDEST_FIRST + "'");
+    }
+    
+    /**
+     * Add the commenters' usernames and names, loading all commenters with one query
+     */
+    private List<Map<String, Object>> withUserDetails(List<Comment> comments) {
+        Set<String> userIds = new LinkedHashSet<>();
+        comments.forEach(comment -> userIds.add(comment.getUserId()));
+        Map<String, UserSummary> users = userSummaryLoader.loadAll(userIds);
         
+        List<Map<String, Object>> enrichedComments = new ArrayList<>();
         for (Comment comment : comments) {
             Map<String, Object> enrichedComment = new HashMap<>();
             enrichedComment.put("id", comment.getId());
@@ -217,10 +457,12 @@ public class CommentService {
             enrichedComment.put("createdAt", comment.getCreatedAt());
             
             // Add user details
-            userRepository.findById(comment.getUserId()).ifPresent(user -> {
+            UserSummary user = users.get(comment.getUserId());
+            if (user != null) {
                 enrichedComment.put("username", user.getUsername());
                 enrichedComment.put("fullName", user.getFullName());
-            });
+                enrichedComment.put("profileImage", user.getProfileImage());
+            }
             
             enrichedComments.add(enrichedComment);
         }
@@ -229,24 +471,20 @@ public class CommentService {
     }
     
     /**
-     * Process mentions in a comment
+     * Process mentions in a comment: each mentioned user is notified once, however
+     * often they are mentioned, with one lookup and one insert for all of them
      * 
-     * @param mentions List of usernames mentioned
+     * @param mentions List of usernames mentioned, possibly with duplicates
      * @param comment The comment containing mentions
      * @param commenterName The name of the commenter
      */
     private void processMentions(List<String> mentions, Comment comment, String commenterName) {
-        for (String username : mentions) {
-            userRepository.findByUsername(username).ifPresent(mentionedUser -> {
-                // Don't notify if user mentions themselves
-                if (!mentionedUser.getId().equals(comment.getUserId())) {
-                    notificationService.createMentionNotification(
-                        mentionedUser.getId(), 
-                        commenterName,
-                        comment.getPostId()
-                    );
-                }
-            });
+        if (mentions.isEmpty()) {
+            return;
         }
+        Set<String> mentionedUserIds = new LinkedHashSet<>(userDirectoryService.resolve(new LinkedHashSet<>(mentions)).values());
+        // Don't notify if user mentions themselves
+        mentionedUserIds.remove(comment.getUserId());
+        notificationService.createMentionNotifications(mentionedUserIds, commenterName, comment.getPostId(), comment);
     }
 }
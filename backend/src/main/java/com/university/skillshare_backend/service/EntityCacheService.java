@@ -0,0 +1,147 @@
+package com.university.skillshare_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.university.skillshare_backend.model.Group;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.Quiz;
+import com.university.skillshare_backend.model.User;
+
+/**
+ * Bounded in-process cache of entities by ID, in front of their repositories.
+ *
+ * Entries are kept as the BSON documents Mongo would store and are converted to a
+ * new entity on every hit, so callers can modify what they get back (e.g. clear the
+ * password before responding) without changing the cached copy.
+ */
+@Service
+public class EntityCacheService {
+
+    private final MongoConverter mongoConverter;
+    private final Map<Class<?>, EntityCache> caches = new LinkedHashMap<>();
+
+    @Autowired
+    public EntityCacheService(
+            MongoConverter mongoConverter,
+            @Value("${entity-cache.maximum-size:10000}") long maximumSize,
+            @Value("${entity-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.mongoConverter = mongoConverter;
+        for (Class<?> type : new Class<?>[] { User.class, Post.class, Group.class, Quiz.class }) {
+            caches.put(type, new EntityCache(maximumSize, ttlSeconds));
+        }
+    }
+
+    public boolean isCached(Class<?> type) {
+        return caches.containsKey(type);
+    }
+
+    /**
+     * Get a copy of a cached entity
+     */
+    public <T> Optional<T> get(Class<T> type, Object id) {
+        EntityCache cache = caches.get(type);
+        if (cache == null || id == null) {
+            return Optional.empty();
+        }
+        Document document = cache.entries.getIfPresent(id.toString());
+        return document == null ? Optional.empty() : Optional.of(mongoConverter.read(type, document));
+    }
+
+    /**
+     * Version to pass to {@link #put} for a value that is about to be read from the database
+     */
+    public long readVersion(Class<?> type) {
+        EntityCache cache = caches.get(type);
+        return cache == null ? 0 : cache.invalidations.get();
+    }
+
+    /**
+     * Cache an entity read from the database, unless an entity of its type was
+     * invalidated since the read started (the value might already be stale)
+     */
+    public void put(Object entity, long readVersion) {
+        EntityCache cache = caches.get(entity.getClass());
+        Object id = getId(entity);
+        if (cache == null || id == null) {
+            return;
+        }
+        Document document = new Document();
+        mongoConverter.write(entity, document);
+        if (cache.invalidations.get() == readVersion) {
+            cache.entries.put(id.toString(), document);
+        }
+    }
+
+    public void evict(Class<?> type, Object id) {
+        EntityCache cache = caches.get(type);
+        if (cache != null && id != null) {
+            cache.invalidations.incrementAndGet();
+            cache.entries.invalidate(id.toString());
+        }
+    }
+
+    public void evictEntity(Object entity) {
+        evict(entity.getClass(), getId(entity));
+    }
+
+    public void evictAll(Class<?> type) {
+        EntityCache cache = caches.get(type);
+        if (cache != null) {
+            cache.invalidations.incrementAndGet();
+            cache.entries.invalidateAll();
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts of every entity cache
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((type, cache) -> {
+            CacheStats cacheStats = cache.entries.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.entries.estimatedSize());
+            entry.put("hits", cacheStats.hitCount());
+            entry.put("misses", cacheStats.missCount());
+            entry.put("hitRate", cacheStats.hitRate());
+            entry.put("evictions", cacheStats.evictionCount());
+            entry.put("invalidations", cache.invalidations.get());
+            stats.put(type.getSimpleName(), entry);
+        });
+        return stats;
+    }
+
+    private Object getId(Object entity) {
+        MongoPersistentEntity<?> persistentEntity = mongoConverter.getMappingContext()
+            .getRequiredPersistentEntity(entity.getClass());
+        return persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+    }
+
+    private static class EntityCache {
+        private final Cache<String, Document> entries;
+        // Bumped on every eviction; reads that overlap one are not cached
+        private final AtomicLong invalidations = new AtomicLong();
+
+        EntityCache(long maximumSize, long ttlSeconds) {
+            this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        }
+    }
+}
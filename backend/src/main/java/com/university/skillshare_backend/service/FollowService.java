@@ -1,5 +1,6 @@
 package com.university.skillshare_backend.service;
 
+import com.university.skillshare_backend.dto.UserSummary;
 import com.university.skillshare_backend.model.Follow;
 import com.university.skillshare_backend.model.User;
 import com.university.skillshare_backend.repository.FollowRepository;
@@ -17,14 +18,20 @@ public class FollowService {
     private final FollowRepository followRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final TimelineService timelineService;
+    private final UserSummaryLoader userSummaryLoader;
 
     @Autowired
     public FollowService(FollowRepository followRepository, 
                         UserRepository userRepository,
-                        NotificationService notificationService) {
+                        NotificationService notificationService,
+                        TimelineService timelineService,
+                        UserSummaryLoader userSummaryLoader) {
         this.followRepository = followRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.timelineService = timelineService;
+        this.userSummaryLoader = userSummaryLoader;
     }
 
     public Follow followUser(String followerId, String followedId) {
@@ -43,6 +50,9 @@ public class FollowService {
         Follow follow = new Follow(followerId, followedId);
         Follow savedFollow = followRepository.save(follow);
 
+        // Backfill the follower's home timeline
+        timelineService.onFollow(followerId, followedId);
+
         // Send notification
         notificationService.createNotification(
             followedId,
@@ -63,30 +73,30 @@ public class FollowService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", followedId));
 
         followRepository.deleteByFollowerIdAndFollowedId(followerId, followedId);
+        timelineService.onUnfollow(followerId, followedId);
     }
 
-    public List<User> getFollowers(String userId) {
+    public List<UserSummary> getFollowers(String userId) {
         // Verify user exists
         userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        return followRepository.findByFollowedId(userId)
+        // One query for all followers; follows of deleted users are skipped
+        return userSummaryLoader.loadList(followRepository.findByFollowedId(userId)
                 .stream()
-                .map(follow -> userRepository.findById(follow.getFollowerId())
-                        .orElseThrow(() -> new ResourceNotFoundException("User", "id", follow.getFollowerId())))
-                .collect(Collectors.toList());
+                .map(Follow::getFollowerId)
+                .collect(Collectors.toList()));
     }
 
-    public List<User> getFollowing(String userId) {
+    public List<UserSummary> getFollowing(String userId) {
         // Verify user exists
         userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        return followRepository.findByFollowerId(userId)
+        return userSummaryLoader.loadList(followRepository.findByFollowerId(userId)
                 .stream()
-                .map(follow -> userRepository.findById(follow.getFollowedId())
-                        .orElseThrow(() -> new ResourceNotFoundException("User", "id", follow.getFollowedId())))
-                .collect(Collectors.toList());
+                .map(Follow::getFollowedId)
+                .collect(Collectors.toList()));
     }
 
     public boolean isFollowing(String followerId, String followedId) {
@@ -2,6 +2,7 @@ package com.university.skillshare_backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.university.skillshare_backend.dto.UserSummary;
 import com.university.skillshare_backend.model.Group;
 import com.university.skillshare_backend.model.GroupMembership;
 import com.university.skillshare_backend.model.Notification.NotificationType;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 import com.university.skillshare_backend.model.GroupPost;
 import com.university.skillshare_backend.repository.GroupPostRepository;
 import com.university.skillshare_backend.repository.PostRepository;
@@ -28,6 +30,10 @@ public class GroupService {
     private final GroupPostRepository groupPostRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final UserSummaryLoader userSummaryLoader;
+
+    @Autowired
+    private PostInsightsService postInsightsService;
 
     @Autowired
     public GroupService(GroupRepository groupRepository, 
@@ -35,13 +41,15 @@ public class GroupService {
                        NotificationService notificationService,
                        GroupPostRepository groupPostRepository,
                        PostRepository postRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       UserSummaryLoader userSummaryLoader) {
         this.groupRepository = groupRepository;
         this.membershipRepository = membershipRepository;
         this.notificationService = notificationService;
         this.groupPostRepository = groupPostRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.userSummaryLoader = userSummaryLoader;
     }
 
     public List<Group> getAllGroups() {
@@ -124,6 +132,7 @@ public class GroupService {
         groupPost.setSharedById(userId);
 
         GroupPost savedPost = groupPostRepository.save(groupPost);
+        postInsightsService.adjustShares(postId, 1);
 
         // Notify group members
         notificationService.createNotification(
@@ -181,21 +190,17 @@ public class GroupService {
         return new ArrayList<>(allGroups);
     }
     
-    public List<User> getGroupMembers(String groupId) {
+    public List<UserSummary> getGroupMembers(String groupId) {
         // Verify group exists
         getGroupById(groupId);
         
         // Get all memberships for this group
         List<GroupMembership> memberships = membershipRepository.findByGroupId(groupId);
         
-        // Get user details for each member
-        List<User> members = new ArrayList<>();
-        for (GroupMembership membership : memberships) {
-            userRepository.findById(membership.getUserId())
-                .ifPresent(members::add);
-        }
-        
-        return members;
+        // Get user details of all members with one query
+        return userSummaryLoader.loadList(memberships.stream()
+            .map(GroupMembership::getUserId)
+            .collect(Collectors.toList()));
     }
     
     public Group updateGroup(String groupId, Group updatedGroup, String userId) {
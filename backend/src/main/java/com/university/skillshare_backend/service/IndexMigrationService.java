@@ -0,0 +1,216 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Like;
+import com.university.skillshare_backend.model.PostInsights;
+import com.university.skillshare_backend.util.HyperLogLog;
+
+/**
+ * Builds the indexes declared on the document classes (@Indexed, @CompoundIndex)
+ * once the application has started, instead of while the context starts up.
+ *
+ * Documents that would break a unique index are removed first, keeping the oldest
+ * of each duplicate set; the counts depending on them are then recomputed.
+ * Every index is built separately, so one that cannot be built (e.g. a unique index
+ * over existing duplicates) is logged and does not keep the others from being built.
+ * Disabled with mongo.index-migration.enabled=false, e.g. in tests without a database.
+ */
+@Service
+public class IndexMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexMigrationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final PostInsightsService postInsightsService;
+    private final boolean enabled;
+
+    @Autowired
+    public IndexMigrationService(
+            MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            PostInsightsService postInsightsService,
+            @Value("${mongo.index-migration.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.postInsightsService = postInsightsService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            logger.info("Index migration disabled");
+            return;
+        }
+        removeDuplicates();
+
+        int built = 0;
+        int failed = 0;
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                try {
+                    indexOps.ensureIndex(index);
+                    built++;
+                } catch (Exception e) {
+                    failed++;
+                    logger.error("Error building index {} on {}: {}", index.getIndexOptions().get("name"),
+                        entity.getCollection(), e.getMessage());
+                }
+            }
+        }
+        logger.info("Index migration done: {} indexes ensured, {} failed", built, failed);
+    }
+
+    /**
+     * Remove the duplicates that would keep the unique indexes from being built.
+     * Safe to run repeatedly: once the duplicates are gone it finds nothing.
+     */
+    private void removeDuplicates() {
+        Set<String> recount = new HashSet<>();
+        try {
+            // Views, shares and viewers are folded into the kept insights; likes and
+            // comments are recounted
+            for (Document key : removeDuplicates(PostInsights.class, this::mergeInsights, "postId")) {
+                recount.add(key.getString("postId"));
+            }
+        } catch (Exception e) {
+            logger.error("Error removing duplicate post insights: {}", e.getMessage());
+        }
+        try {
+            // Duplicate likes were counted, so their posts' like counts are too high
+            for (Document key : removeDuplicates(Like.class, (kept, duplicates) -> { }, "postId", "userId")) {
+                recount.add(key.getString("postId"));
+            }
+        } catch (Exception e) {
+            logger.error("Error removing duplicate likes: {}", e.getMessage());
+        }
+
+        for (String postId : recount) {
+            try {
+                postInsightsService.syncInsights(postId);
+            } catch (Exception e) {
+                logger.error("Error recounting insights for post {}: {}", postId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete all but the oldest document of each set sharing the same values of the
+     * key fields
+     *
+     * @param merge Called with the ID of the kept document and those of its duplicates
+     * before the duplicates are deleted
+     * @return The key values that had duplicates
+     */
+    private List<Document> removeDuplicates(Class<?> type, BiConsumer<Object, List<?>> merge, String... keyFields) {
+        Document key = new Document();
+        for (String field : keyFields) {
+            key.append(field, "$" + field);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.sort(Sort.Direction.ASC, "_id"),
+            context -> new Document("$group", new Document("_id", key)
+                .append("ids", new Document("$push", "$_id"))
+                .append("count", new Document("$sum", 1))),
+            Aggregation.match(Criteria.where("count").gt(1)))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        List<Document> duplicated = new ArrayList<>();
+        long removed = 0;
+        try (var groups = mongoTemplate.aggregateStream(aggregation, type, Document.class)) {
+            for (Document group : (Iterable<Document>) groups::iterator) {
+                List<?> ids = group.getList("ids", Object.class);
+                List<?> duplicates = ids.subList(1, ids.size());
+                merge.accept(ids.get(0), duplicates);
+                removed += mongoTemplate.remove(Query.query(Criteria.where("_id").in(duplicates)), type).getDeletedCount();
+                duplicated.add(group.get("_id", Document.class));
+            }
+        }
+        if (removed > 0) {
+            logger.info("Removed {} duplicate {} documents", removed, type.getSimpleName());
+        }
+        return duplicated;
+    }
+
+    /**
+     * Add the views and shares of duplicate insights to the kept ones, and merge their
+     * viewer sketches. The IDs merged are recorded on the kept insights, so a run
+     * interrupted before the duplicates were deleted does not add them twice.
+     */
+    private void mergeInsights(Object keptId, List<?> duplicateIds) {
+        String collection = mongoTemplate.getCollectionName(PostInsights.class);
+        Document kept = mongoTemplate.findById(keptId, Document.class, collection);
+        if (kept == null) {
+            return;
+        }
+        List<Object> merged = new ArrayList<>(kept.getList("mergedDuplicates", Object.class, List.of()));
+        long views = number(kept, "views");
+        long shares = number(kept, "shareCount");
+        long uniqueViewers = number(kept, "uniqueViewers");
+        HyperLogLog viewers = HyperLogLog.fromBytes(sketch(kept));
+        for (Document duplicate : mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(duplicateIds)), Document.class, collection)) {
+            if (merged.contains(duplicate.get("_id"))) {
+                continue;
+            }
+            views += number(duplicate, "views");
+            shares += number(duplicate, "shareCount");
+            uniqueViewers = Math.max(uniqueViewers, number(duplicate, "uniqueViewers"));
+            viewers.merge(HyperLogLog.fromBytes(sketch(duplicate)));
+            merged.add(duplicate.get("_id"));
+        }
+
+        Update update = new Update()
+            .set("views", (int) views)
+            .set("shareCount", (int) shares)
+            // Insights from before viewer sketches only have the count
+            .set("uniqueViewers", (int) Math.max(uniqueViewers, viewers.estimate()))
+            .set("viewerSketch", viewers.toBytes())
+            .inc("viewerSketchVersion", 1)
+            .set("mergedDuplicates", merged);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(keptId)), update, collection);
+    }
+
+    private static byte[] sketch(Document insights) {
+        Object sketch = insights.get("viewerSketch");
+        return sketch instanceof Binary binary ? binary.getData() : null;
+    }
+
+    private static long number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
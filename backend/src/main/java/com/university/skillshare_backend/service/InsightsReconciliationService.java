@@ -0,0 +1,309 @@
+package com.university.skillshare_backend.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.university.skillshare_backend.model.Comment;
+import com.university.skillshare_backend.model.Like;
+import com.university.skillshare_backend.model.PostInsights;
+import com.university.skillshare_backend.repository.PostInsightsRepository;
+import com.university.skillshare_backend.service.InsightsTimeSeriesService.Metric;
+
+/**
+ * Periodic repair of the like and comment counters in post_insights.
+ *
+ * The true counts of all posts come from one $group over likes and one over comments,
+ * each sorted by post ID, and are merge-joined with the stored insights read in the
+ * same order. All three are cursors, so memory stays bounded by one chunk of
+ * candidates however many posts there are. Candidates are recounted just before
+ * they are corrected, and a correction only applies if the stored counters have not
+ * changed since they were read, so a like or comment racing the job is never lost;
+ * a post skipped that way is looked at again by the next run.
+ */
+@Service
+public class InsightsReconciliationService {
+
+    // Posts per recount and bulk write
+    private static final int CHUNK_SIZE = 500;
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(InsightsReconciliationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostInsightsRepository insightsRepository;
+    private final AuthorInsightsService authorInsightsService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = new LinkedHashMap<>();
+
+    @Autowired
+    public InsightsReconciliationService(
+            MongoTemplate mongoTemplate,
+            PostInsightsRepository insightsRepository,
+            AuthorInsightsService authorInsightsService) {
+        this.mongoTemplate = mongoTemplate;
+        this.insightsRepository = insightsRepository;
+        this.authorInsightsService = authorInsightsService;
+    }
+
+    /**
+     * Compare the stored like and comment counts of every post with the true counts
+     * and correct the ones that drifted
+     *
+     * @return Statistics of this run, or of the last one if a run is already in progress
+     */
+    @Scheduled(cron = "${insights.reconciliation-cron:0 30 3 * * *}")
+    public Map<String, Object> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Insights reconciliation already running");
+            return getLastRun();
+        }
+        RunStats stats = new RunStats();
+        try (Stream<Document> likes = countStream(Like.class);
+             Stream<Document> comments = countStream(Comment.class);
+             Stream<PostInsights> stored = insightsStream()) {
+            Peeking<Document> likeCounts = new Peeking<>(likes.iterator());
+            Peeking<Document> commentCounts = new Peeking<>(comments.iterator());
+            Peeking<PostInsights> insights = new Peeking<>(stored.iterator());
+
+            Map<String, PostInsights> candidates = new LinkedHashMap<>();
+            while (likeCounts.hasNext() || commentCounts.hasNext() || insights.hasNext()) {
+                String postId = min(min(likeCounts.hasNext() ? likeCounts.peek().getString("_id") : null,
+                    commentCounts.hasNext() ? commentCounts.peek().getString("_id") : null),
+                    insights.hasNext() ? insights.peek().getPostId() : null);
+                long likeCount = likeCounts.hasNext() && postId.equals(likeCounts.peek().getString("_id"))
+                    ? count(likeCounts.next()) : 0;
+                long commentCount = commentCounts.hasNext() && postId.equals(commentCounts.peek().getString("_id"))
+                    ? count(commentCounts.next()) : 0;
+                // null: the post has likes or comments but no insights document
+                PostInsights current = insights.hasNext() && postId.equals(insights.peek().getPostId())
+                    ? insights.next() : null;
+
+                stats.scanned++;
+                long likeDrift = likeCount - (current == null ? 0 : current.getLikeCount());
+                long commentDrift = commentCount - (current == null ? 0 : current.getCommentCount());
+                if (likeDrift != 0 || commentDrift != 0) {
+                    candidates.put(postId, current);
+                    if (candidates.size() == CHUNK_SIZE) {
+                        correct(candidates, stats);
+                        candidates.clear();
+                    }
+                }
+            }
+            correct(candidates, stats);
+        } catch (Exception e) {
+            logger.error("Error reconciling insights: {}", e.getMessage());
+            stats.error = e.getMessage();
+        } finally {
+            lastRun = stats.toMap();
+            running.set(false);
+        }
+        logger.info("Reconciled insights of {} posts: {} drifted, {} corrected, {} skipped",
+            stats.scanned, stats.drifted, stats.corrected, stats.skipped);
+        return lastRun;
+    }
+
+    /**
+     * Statistics of the last completed run
+     */
+    public Map<String, Object> getLastRun() {
+        Map<String, Object> result = new LinkedHashMap<>(lastRun);
+        result.put("running", running.get());
+        return result;
+    }
+
+    /**
+     * Matches a counter still at the value the scan read. Insights created by a view
+     * flush have no like or comment counter yet, which the scan reads as 0.
+     */
+    private static Criteria unchanged(String field, int value) {
+        return value == 0 ? Criteria.where(field).in(0, null) : Criteria.where(field).is(value);
+    }
+
+    /**
+     * Recount the candidates and write the counts of those that still differ
+     *
+     * @param candidates Post ID to the insights as read by the scan, null if none existed
+     */
+    private void correct(Map<String, PostInsights> candidates, RunStats stats) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<String, Long> likeCounts = countsOf(Like.class, candidates.keySet());
+        Map<String, Long> commentCounts = countsOf(Comment.class, candidates.keySet());
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostInsights.class);
+        Map<String, long[]> corrections = new HashMap<>();
+        for (Map.Entry<String, PostInsights> candidate : candidates.entrySet()) {
+            String postId = candidate.getKey();
+            PostInsights current = candidate.getValue();
+            long likeCount = likeCounts.getOrDefault(postId, 0L);
+            long commentCount = commentCounts.getOrDefault(postId, 0L);
+            long storedLikes = current == null ? 0 : current.getLikeCount();
+            long storedComments = current == null ? 0 : current.getCommentCount();
+            if (likeCount == storedLikes && commentCount == storedComments) {
+                // Only looked drifted because the scan raced a like or comment
+                continue;
+            }
+            stats.drifted++;
+            stats.likeDrift += Math.abs(likeCount - storedLikes);
+            stats.commentDrift += Math.abs(commentCount - storedComments);
+            corrections.put(postId, new long[] { likeCount, commentCount, storedLikes, storedComments });
+
+            Document counts = new Document("likeCount", (int) likeCount).append("commentCount", (int) commentCount);
+            if (current == null) {
+                stats.created++;
+                ops.upsert(Query.query(Criteria.where("postId").is(postId)),
+                    PostInsightsService.setCountsUpdate(counts));
+            } else {
+                Query unchanged = Query.query(Criteria.where("postId").is(postId))
+                    .addCriteria(unchanged("likeCount", current.getLikeCount()))
+                    .addCriteria(unchanged("commentCount", current.getCommentCount()));
+                ops.updateOne(unchanged, PostInsightsService.setCountsUpdate(counts));
+            }
+        }
+        if (corrections.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkWriteResult result = ops.execute();
+            stats.corrected += result.getMatchedCount() + result.getUpserts().size();
+            stats.skipped += corrections.size() - result.getMatchedCount() - result.getUpserts().size();
+        } catch (Exception e) {
+            logger.error("Error correcting insights of {} posts: {}", corrections.size(), e.getMessage());
+            stats.skipped += corrections.size();
+            return;
+        }
+
+        // Pass applied corrections on to the author rollups; those that lost a race were not applied
+        for (PostInsights written : insightsRepository.findByPostIdIn(corrections.keySet())) {
+            long[] correction = corrections.get(written.getPostId());
+            if (written.getLikeCount() == correction[0] && written.getCommentCount() == correction[1]) {
+                authorInsightsService.record(written.getPostId(), Metric.LIKES, correction[0] - correction[2]);
+                authorInsightsService.record(written.getPostId(), Metric.COMMENTS, correction[1] - correction[3]);
+            }
+        }
+    }
+
+    /**
+     * Documents per post ID in a collection, ordered by post ID
+     */
+    private Stream<Document> countStream(Class<?> collection) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("postId").type(2)),
+            Aggregation.group("postId").count().as("count"),
+            Aggregation.sort(Sort.by("_id")))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(CURSOR_BATCH_SIZE).build());
+        return mongoTemplate.aggregateStream(aggregation, collection, Document.class);
+    }
+
+    private Map<String, Long> countsOf(Class<?> collection, Collection<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("postId").in(postIds)),
+            Aggregation.group("postId").count().as("count"));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, collection, Document.class)) {
+            counts.put(row.getString("_id"), count(row));
+        }
+        return counts;
+    }
+
+    private Stream<PostInsights> insightsStream() {
+        Query query = Query.query(Criteria.where("postId").type(2))
+            .with(Sort.by("postId"))
+            .cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include("postId", "likeCount", "commentCount");
+        return mongoTemplate.stream(query, PostInsights.class);
+    }
+
+    private static long count(Document row) {
+        return ((Number) row.get("count")).longValue();
+    }
+
+    private static String min(String a, String b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Iterator that can look at its next element without consuming it
+     */
+    private static class Peeking<T> {
+        private final Iterator<T> iterator;
+        private T next;
+
+        Peeking(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        boolean hasNext() {
+            return next != null || iterator.hasNext();
+        }
+
+        T peek() {
+            if (next == null) {
+                next = iterator.next();
+            }
+            return next;
+        }
+
+        T next() {
+            T result = peek();
+            next = null;
+            return result;
+        }
+    }
+
+    private static class RunStats {
+        private final Instant startedAt = Instant.now();
+        private long scanned;
+        private long drifted;
+        private long likeDrift;
+        private long commentDrift;
+        private long created;
+        private long corrected;
+        private long skipped;
+        private String error;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("startedAt", startedAt.toString());
+            map.put("durationMs", Instant.now().toEpochMilli() - startedAt.toEpochMilli());
+            map.put("postsScanned", scanned);
+            map.put("postsDrifted", drifted);
+            map.put("likeDrift", likeDrift);
+            map.put("commentDrift", commentDrift);
+            map.put("insightsCreated", created);
+            map.put("corrected", corrected);
+            map.put("skipped", skipped);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+}
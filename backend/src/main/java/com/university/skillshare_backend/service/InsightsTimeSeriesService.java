@@ -0,0 +1,305 @@
+package com.university.skillshare_backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.InsightsCounts;
+import com.university.skillshare_backend.model.PostInsightsDaily;
+import com.university.skillshare_backend.model.PostInsightsHourly;
+
+/**
+ * Per-post engagement over time, in hourly and daily buckets (UTC).
+ *
+ * Events are summed in memory per post and hour and written on a timer with one
+ * bulk $inc per chunk of buckets. Once a day is over, its hourly document is rolled
+ * up into the post's monthly document of daily counts. A query reads at most one
+ * document per day (hourly) or per month (daily), plus the few days not rolled up yet.
+ */
+@Service
+public class InsightsTimeSeriesService {
+
+    public enum Metric {
+        VIEWS("views"),
+        UNIQUE_VIEWERS("uniqueViewers"),
+        LIKES("likes"),
+        COMMENTS("comments"),
+        SHARES("shares");
+
+        private final String field;
+
+        Metric(String field) {
+            this.field = field;
+        }
+    }
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    // Longest range a single query may cover, which bounds the documents it reads
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_DAILY_RANGE = Duration.ofDays(366);
+
+    // Buckets per bulk write, and hourly documents rolled up per batch
+    private static final int FLUSH_CHUNK_SIZE = 1000;
+    private static final int ROLLUP_BATCH_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(InsightsTimeSeriesService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    // "postId:epochHour" to counts per Metric ordinal, not yet written
+    private final ConcurrentHashMap<String, long[]> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InsightsTimeSeriesService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Count an event in the current hour
+     */
+    public void record(String postId, Metric metric, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        long hour = System.currentTimeMillis() / Duration.ofHours(1).toMillis();
+        pending.compute(postId + ":" + hour, (key, counts) -> {
+            long[] updated = counts == null ? new long[Metric.values().length] : counts;
+            updated[metric.ordinal()] += delta;
+            return updated;
+        });
+    }
+
+    /**
+     * Write the counts recorded since the last flush into the hourly buckets
+     */
+    @Scheduled(fixedDelayString = "${insights.timeseries-flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<String, long[]> drained = new HashMap<>();
+        for (String key : pending.keySet()) {
+            long[] counts = pending.remove(key);
+            if (counts != null) {
+                drained.put(key, counts);
+            }
+        }
+
+        List<String> keys = new ArrayList<>(drained.keySet());
+        for (int start = 0; start < keys.size(); start += FLUSH_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(start, Math.min(start + FLUSH_CHUNK_SIZE, keys.size()));
+            try {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostInsightsHourly.class);
+                for (String key : chunk) {
+                    int separator = key.lastIndexOf(':');
+                    String postId = key.substring(0, separator);
+                    Instant hour = Instant.ofEpochSecond(Long.parseLong(key.substring(separator + 1)) * 3600);
+                    LocalDate day = LocalDate.ofInstant(hour, ZoneOffset.UTC);
+
+                    // A late write to a finished day makes it roll up again
+                    Update update = new Update()
+                        .setOnInsert("postId", postId)
+                        .setOnInsert("day", startOf(day))
+                        .set("rolledUp", false)
+                        .inc("version", 1);
+                    long[] counts = drained.get(key);
+                    String prefix = "hours." + hour.atZone(ZoneOffset.UTC).getHour() + ".";
+                    for (Metric metric : Metric.values()) {
+                        if (counts[metric.ordinal()] != 0) {
+                            update.inc(prefix + metric.field, counts[metric.ordinal()]);
+                        }
+                    }
+                    ops.upsert(Query.query(Criteria.where("_id").is(hourlyId(postId, day))), update);
+                }
+                ops.execute();
+            } catch (Exception e) {
+                logger.error("Error writing {} insights buckets, retrying next flush: {}", chunk.size(), e.getMessage());
+                for (String key : chunk) {
+                    long[] counts = drained.get(key);
+                    pending.merge(key, counts, (current, failed) -> {
+                        for (int i = 0; i < current.length; i++) {
+                            current[i] += failed[i];
+                        }
+                        return current;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the hourly buckets of finished days into the daily buckets. The daily
+     * counts are overwritten rather than incremented, so rolling a day up again is safe.
+     */
+    @Scheduled(cron = "${insights.timeseries-rollup-cron:0 10 * * * *}")
+    public void rollUpDays() {
+        Date today = startOf(LocalDate.now(ZoneOffset.UTC));
+        Query query = Query.query(Criteria.where("rolledUp").is(false).and("day").lt(today))
+            .limit(ROLLUP_BATCH_SIZE);
+        int rolledUp = 0;
+        try {
+            List<PostInsightsHourly> batch;
+            while (!(batch = mongoTemplate.find(query, PostInsightsHourly.class)).isEmpty()) {
+                BulkOperations daily = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostInsightsDaily.class);
+                BulkOperations hourly = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostInsightsHourly.class);
+                for (PostInsightsHourly bucket : batch) {
+                    LocalDate day = LocalDate.ofInstant(bucket.getDay().toInstant(), ZoneOffset.UTC);
+                    InsightsCounts total = new InsightsCounts();
+                    bucket.getHours().values().forEach(total::add);
+
+                    daily.upsert(
+                        Query.query(Criteria.where("_id").is(dailyId(bucket.getPostId(), YearMonth.from(day)))),
+                        new Update()
+                            .setOnInsert("postId", bucket.getPostId())
+                            .setOnInsert("month", startOf(day.withDayOfMonth(1)))
+                            .set("days." + day.getDayOfMonth(), total));
+                    // Only mark it if no new counts arrived since it was read
+                    hourly.updateOne(
+                        Query.query(Criteria.where("_id").is(bucket.getId()).and("version").is(bucket.getVersion())),
+                        new Update().set("rolledUp", true));
+                }
+                daily.execute();
+                int marked = hourly.execute().getModifiedCount();
+                rolledUp += marked;
+                // A short batch was the last one; if none could be marked, they are
+                // being written to right now and the next run will get them
+                if (batch.size() < ROLLUP_BATCH_SIZE || marked == 0) {
+                    break;
+                }
+            }
+            if (rolledUp > 0) {
+                logger.info("Rolled up {} days of post insights", rolledUp);
+            }
+        } catch (Exception e) {
+            logger.error("Error rolling up post insights: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the engagement of a post over a time range
+     *
+     * @param postId The post ID
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @param granularity "hour" or "day"
+     * @return One point per hour or day in the range, with zero counts where nothing happened
+     */
+    public Map<String, Object> getSeries(String postId, Instant from, Instant to, String granularity) {
+        boolean hourly = HOUR.equals(granularity);
+        if (!hourly && !DAY.equals(granularity)) {
+            throw new IllegalArgumentException("granularity must be '" + HOUR + "' or '" + DAY + "'");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Duration maxRange = hourly ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE;
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("The range may cover at most " + maxRange.toDays() + " days at "
+                + granularity + " granularity");
+        }
+
+        Map<Instant, InsightsCounts> buckets = hourly ? readHours(postId, from, to) : readDays(postId, from, to);
+
+        ChronoUnit unit = hourly ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        List<Map<String, Object>> points = new ArrayList<>();
+        for (Instant time = from.truncatedTo(unit); time.isBefore(to); time = time.plus(1, unit)) {
+            InsightsCounts counts = buckets.getOrDefault(time, new InsightsCounts());
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("time", time.toString());
+            point.put("views", counts.getViews());
+            point.put("uniqueViewers", counts.getUniqueViewers());
+            point.put("likes", counts.getLikes());
+            point.put("comments", counts.getComments());
+            point.put("shares", counts.getShares());
+            points.add(point);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("postId", postId);
+        response.put("granularity", granularity);
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("points", points);
+        return response;
+    }
+
+    private Map<Instant, InsightsCounts> readHours(String postId, Instant from, Instant to) {
+        Map<Instant, InsightsCounts> buckets = new HashMap<>();
+        for (PostInsightsHourly bucket : findHourly(postId, from, to, false)) {
+            Instant day = bucket.getDay().toInstant();
+            bucket.getHours().forEach((hour, counts) ->
+                buckets.put(day.plus(Long.parseLong(hour), ChronoUnit.HOURS), counts));
+        }
+        return buckets;
+    }
+
+    private Map<Instant, InsightsCounts> readDays(String postId, Instant from, Instant to) {
+        Map<Instant, InsightsCounts> buckets = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        YearMonth last = YearMonth.from(to.atZone(ZoneOffset.UTC));
+        for (YearMonth month = YearMonth.from(from.atZone(ZoneOffset.UTC)); !month.isAfter(last); month = month.plusMonths(1)) {
+            ids.add(dailyId(postId, month));
+        }
+        for (PostInsightsDaily bucket : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), PostInsightsDaily.class)) {
+            Instant month = bucket.getMonth().toInstant();
+            bucket.getDays().forEach((day, counts) ->
+                buckets.put(month.plus(Long.parseLong(day) - 1, ChronoUnit.DAYS), counts));
+        }
+
+        // Days that have not been rolled up yet (today, usually) are summed from their hours
+        for (PostInsightsHourly bucket : findHourly(postId, from, to, true)) {
+            InsightsCounts total = new InsightsCounts();
+            bucket.getHours().values().forEach(total::add);
+            buckets.put(bucket.getDay().toInstant(), total);
+        }
+        return buckets;
+    }
+
+    private List<PostInsightsHourly> findHourly(String postId, Instant from, Instant to, boolean notRolledUpOnly) {
+        List<String> ids = new ArrayList<>();
+        LocalDate last = LocalDate.ofInstant(to, ZoneOffset.UTC);
+        for (LocalDate day = LocalDate.ofInstant(from, ZoneOffset.UTC); !day.isAfter(last); day = day.plusDays(1)) {
+            ids.add(hourlyId(postId, day));
+        }
+        Criteria criteria = Criteria.where("_id").in(ids);
+        if (notRolledUpOnly) {
+            criteria.and("rolledUp").is(false);
+        }
+        return mongoTemplate.find(Query.query(criteria), PostInsightsHourly.class);
+    }
+
+    private static String hourlyId(String postId, LocalDate day) {
+        return postId + ":" + day;
+    }
+
+    private static String dailyId(String postId, YearMonth month) {
+        return postId + ":" + month;
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
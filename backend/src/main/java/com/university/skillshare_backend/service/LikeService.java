@@ -1,8 +1,17 @@
 package com.university.skillshare_backend.service;
 
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.university.skillshare_backend.exception.ResourceNotFoundException;
@@ -11,6 +20,7 @@ import com.university.skillshare_backend.model.Post;
 import com.university.skillshare_backend.repository.LikeRepository;
 import com.university.skillshare_backend.repository.PostRepository;
 import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.util.LatencyHistogram;
 
 @Service
 public class LikeService {
@@ -22,6 +32,10 @@ public class LikeService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final WebSocketService webSocketService;
+    private final MongoTemplate mongoTemplate;
+    
+    private final LatencyHistogram likeLatency = new LatencyHistogram();
+    private final LatencyHistogram unlikeLatency = new LatencyHistogram();
     
     @Autowired
     private PostInsightsService postInsightsService;
@@ -32,22 +46,30 @@ public class LikeService {
             PostRepository postRepository,
             UserRepository userRepository,
             NotificationService notificationService,
-            WebSocketService webSocketService) {
+            WebSocketService webSocketService,
+            MongoTemplate mongoTemplate) {
         this.likeRepository = likeRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
         this.webSocketService = webSocketService;
+        this.mongoTemplate = mongoTemplate;
     }
     
     /**
-     * Add a like to a post
+     * Add a like to a post. Idempotent: liking again, including concurrently,
+     * leaves a single like and counts it once.
+     * 
+     * Post and user are checked through the entity cache, so on a warm cache they
+     * cost no query; the database work is the like upsert, the like counter update
+     * and the notification to the post's author.
      * 
      * @param postId The post ID
      * @param userId The user ID
      * @return The updated like count
      */
     public long likePost(String postId, String userId) {
+        long start = System.nanoTime();
         try {
             // Verify post exists and get post owner
             Post post = postRepository.findById(postId)
@@ -58,29 +80,24 @@ public class LikeService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId))
                 .getUsername();
 
-            // Check if user already liked the post
-            Like existingLike = likeRepository.findByPostIdAndUserId(postId, userId);
-            if (existingLike == null) {
-                Like like = new Like(postId, userId);
-                likeRepository.save(like);
-                
-                // Send notification to post owner if they're not the one liking
-                if (!userId.equals(post.getUserId())) {
-                    notificationService.createLikeNotification(post.getUserId(), likerName, postId);
-                }
+            if (!insertLike(postId, userId)) {
+                // Already liked
+                return postInsightsService.getInsights(postId).getLikeCount();
+            }
+            
+            // Send notification to post owner if they're not the one liking
+            if (!userId.equals(post.getUserId())) {
+                notificationService.createLikeNotification(post.getUserId(), userId, likerName, postId);
             }
             
-            // Get updated like count
-            long likeCount = likeRepository.countByPostId(postId);
+            // Count the new like
+            long likeCount = postInsightsService.adjustLikes(postId, 1).getLikeCount();
             
             try {
-                // Update insights with new like count
-                postInsightsService.updateLikes(postId, (int) likeCount);
-                
                 // Broadcast the update via WebSocket
                 webSocketService.broadcastLikeCount(postId, likeCount);
             } catch (Exception e) {
-                logger.error("Error updating insights/broadcasting for post {}: {}", postId, e.getMessage());
+                logger.error("Error broadcasting like count for post {}: {}", postId, e.getMessage());
                 // Continue execution since the like was still recorded
             }
             
@@ -88,39 +105,78 @@ public class LikeService {
         } catch (ResourceNotFoundException e) {
             logger.error("Attempted to like non-existent post/user: {}", e.getMessage());
             throw e;
+        } finally {
+            likeLatency.recordSince(start);
         }
     }
     
     /**
-     * Remove a like from a post
+     * Remove a like from a post. Idempotent: only the request that actually
+     * deletes the like counts it down.
      * 
      * @param postId The post ID
      * @param userId The user ID
      * @return The updated like count
      */
     public long unlikePost(String postId, String userId) {
-        // Verify post exists
-        postRepository.findById(postId)
-            .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-        
-        // Delete the like if it exists
-        likeRepository.deleteByPostIdAndUserId(postId, userId);
-        
-        // Get updated like count
-        long likeCount = likeRepository.countByPostId(postId);
-        
+        long start = System.nanoTime();
         try {
-            // Update insights with new like count
-            postInsightsService.updateLikes(postId, (int) likeCount);
+            // Verify post exists
+            postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+            
+            // Delete the like if it exists, and only count it down if it did
+            long deleted = likeRepository.deleteByPostIdAndUserId(postId, userId);
+            if (deleted == 0) {
+                return postInsightsService.getInsights(postId).getLikeCount();
+            }
+            
+            long likeCount = postInsightsService.adjustLikes(postId, -1).getLikeCount();
+            
+            try {
+                // Broadcast the update via WebSocket
+                webSocketService.broadcastLikeCount(postId, likeCount);
+            } catch (Exception e) {
+                logger.error("Error broadcasting like count for post {}: {}", postId, e.getMessage());
+                // Continue execution since the unlike was still recorded
+            }
             
-            // Broadcast the update via WebSocket
-            webSocketService.broadcastLikeCount(postId, likeCount);
-        } catch (Exception e) {
-            logger.error("Error updating insights/broadcasting for post {}: {}", postId, e.getMessage());
-            // Continue execution since the unlike was still recorded
+            return likeCount;
+        } finally {
+            unlikeLatency.recordSince(start);
+        }
+    }
+    
+    /**
+     * Latency percentiles of likePost and unlikePost since startup (or the last reset)
+     */
+    public Map<String, Map<String, Object>> getLatencyStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("like", likeLatency.getStats());
+        stats.put("unlike", unlikeLatency.getStats());
+        return stats;
+    }
+    
+    public void resetLatencyStats() {
+        likeLatency.reset();
+        unlikeLatency.reset();
+    }
+    
+    /**
+     * Insert the like unless it exists, in one round trip. The unique (postId, userId)
+     * index makes this safe against concurrent clicks: of two racing upserts one
+     * inserts and the other matches, or fails with a duplicate key error.
+     * 
+     * @return true if this call inserted the like
+     */
+    private boolean insertLike(String postId, String userId) {
+        Query query = Query.query(Criteria.where("postId").is(postId).and("userId").is(userId));
+        Update update = new Update().setOnInsert("createdAt", new Date());
+        try {
+            return mongoTemplate.upsert(query, update, Like.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false;
         }
-        
-        return likeCount;
     }
     
     /**
@@ -135,7 +191,7 @@ public class LikeService {
             postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
             
-            return likeRepository.countByPostId(postId);
+            return postInsightsService.getInsights(postId).getLikeCount();
         } catch (ResourceNotFoundException e) {
             // Return 0 likes for non-existent posts instead of throwing error
             logger.warn("Attempted to get likes for non-existent post {}", postId);
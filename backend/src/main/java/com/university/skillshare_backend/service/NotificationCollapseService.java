@@ -0,0 +1,202 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.model.Notification.NotificationType;
+
+/**
+ * Folds the notifications of one kind about one item into a single notification per
+ * recipient and time window, e.g. "alice and 241 others liked your post".
+ *
+ * Windows are fixed (tumbling): every event of a window is one pipeline upsert on the
+ * window's collapse key, which counts the actor and rebuilds the message server-side,
+ * so concurrent events never read-modify-write. Actors are told apart by user ID: the
+ * IDs of the last max-actor-ids actors are kept, so an actor counted once in a window
+ * is not counted again (unless so many others acted since that their ID was dropped). The first event of a window creates
+ * the notification; later ones move it back to the top of the inbox and mark it
+ * unread. Pushes are limited to one per recipient per interval; changes in between
+ * are pushed together at the end of the interval.
+ */
+@Service
+public class NotificationCollapseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCollapseService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationCounterService counterService;
+    private final UserSessionRegistry sessionRegistry;
+    private final long windowMs;
+    private final int recentActors;
+    private final int maxActorIds;
+    private final long pushIntervalMs;
+
+    // Recipient -> collapse keys changed since their last push
+    private final Map<String, Set<String>> pendingPushes = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPushAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationCollapseService(
+            MongoTemplate mongoTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            NotificationCounterService counterService,
+            UserSessionRegistry sessionRegistry,
+            @Value("${notifications.collapse-window-minutes:60}") long windowMinutes,
+            @Value("${notifications.collapse-recent-actors:3}") int recentActors,
+            @Value("${notifications.collapse-max-actor-ids:1000}") int maxActorIds,
+            @Value("${notifications.push-interval-ms:2000}") long pushIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.counterService = counterService;
+        this.sessionRegistry = sessionRegistry;
+        this.windowMs = windowMinutes * 60_000;
+        this.recentActors = recentActors;
+        this.maxActorIds = maxActorIds;
+        this.pushIntervalMs = pushIntervalMs;
+    }
+
+    /**
+     * Count an actor in the collapsed notification of the current window
+     *
+     * @param actorId User ID of the actor, to count each actor once
+     * @param actorName Shown in the message
+     * @param action What the actors did, e.g. "liked your post"
+     * @param metadata Metadata of this event; replaces that of earlier events
+     */
+    public void collapse(String userId, NotificationType type, String relatedItemId, String title,
+                         String actorId, String actorName, String action, Map<String, String> metadata) {
+        long now = System.currentTimeMillis();
+        String collapseKey = type + ":" + relatedItemId + ":" + userId + ":" + (now - now % windowMs);
+        Notification previous;
+        try {
+            previous = upsert(collapseKey, userId, type, relatedItemId, title, actorId, actorName, action, metadata, now);
+        } catch (DuplicateKeyException e) {
+            // Another event created the notification first; this one now updates it
+            previous = upsert(collapseKey, userId, type, relatedItemId, title, actorId, actorName, action, metadata, now);
+        }
+        if (previous == null || previous.isRead()) {
+            counterService.adjust(userId, 1);
+        }
+
+        pendingPushes.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(collapseKey);
+        if (now - lastPushAt.getOrDefault(userId, 0L) >= pushIntervalMs) {
+            push(userId);
+        }
+    }
+
+    /**
+     * Push the collapsed notifications that changed since each recipient's last push
+     */
+    @Scheduled(fixedDelayString = "${notifications.push-interval-ms:2000}")
+    public void pushPending() {
+        for (String userId : pendingPushes.keySet()) {
+            push(userId);
+        }
+        long idleSince = System.currentTimeMillis() - pushIntervalMs;
+        lastPushAt.values().removeIf(pushedAt -> pushedAt < idleSince);
+    }
+
+    /**
+     * @return The notification as it was before, or null if this created it
+     */
+    private Notification upsert(String collapseKey, String userId, NotificationType type, String relatedItemId,
+                                String title, String actorId, String actorName, String action,
+                                Map<String, String> metadata, long now) {
+        List<AggregationOperation> stages = updatePipeline(userId, type, relatedItemId, title, actorId, actorName,
+                action, metadata, now).stream()
+            .map(stage -> (AggregationOperation) context -> stage)
+            .toList();
+        return mongoTemplate.findAndModify(
+            Query.query(Criteria.where("collapseKey").is(collapseKey)),
+            AggregationUpdate.from(stages),
+            FindAndModifyOptions.options().upsert(true).returnNew(false),
+            Notification.class);
+    }
+
+    /**
+     * The update counting an actor in a collapsed notification: a stage setting the
+     * fields, then one rebuilding the message from the new actor count
+     */
+    List<Document> updatePipeline(String userId, NotificationType type, String relatedItemId, String title,
+                                  String actorId, String actorName, String action,
+                                  Map<String, String> metadata, long now) {
+        Document id = new Document("$literal", actorId);
+        Document actor = new Document("$literal", actorName);
+        Document ids = new Document("$ifNull", List.of("$actorIds", List.of()));
+        Document names = new Document("$ifNull", List.of("$recentActors", List.of()));
+        Document count = new Document("$ifNull", List.of("$actorCount", 0));
+        // Where the actor was among the counted ones, -1 if they were not
+        Document seenAt = new Document("$indexOfArray", List.of(ids, id));
+        Document isNew = new Document("$eq", List.of(seenAt, -1));
+        // The recent names without the actor's previous one
+        Document otherNames = new Document("$map", new Document("input", new Document("$filter",
+                new Document("input", new Document("$range", List.of(0, new Document("$size", names))))
+                    .append("cond", new Document("$ne", List.of("$$this", seenAt)))))
+            .append("in", new Document("$arrayElemAt", List.of(names, "$$this"))));
+
+        // Fields are read as they were before the update; an actor already counted
+        // moves to the front instead of being counted again
+        Document fields = new Document("userId", new Document("$literal", userId))
+            .append("type", type.name())
+            .append("relatedItemId", new Document("$literal", relatedItemId))
+            .append("title", new Document("$literal", title))
+            .append("metadata", new Document("$literal", metadata))
+            .append("read", false)
+            .append("createdAt", new Date(now))
+            .append("actorCount", new Document("$cond", List.of(
+                isNew, new Document("$add", List.of(count, 1)), count)))
+            .append("actorIds", new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(List.of(id), new Document("$filter",
+                    new Document("input", ids).append("cond", new Document("$ne", List.of("$$this", id)))))),
+                maxActorIds)))
+            .append("recentActors", new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(List.of(actor), otherNames)),
+                recentActors)));
+        Document others = new Document("$subtract", List.of("$actorCount", 1));
+        Document message = new Document("$cond", List.of(
+            new Document("$eq", List.of("$actorCount", 1)),
+            new Document("$concat", List.of(actor, " " + action)),
+            new Document("$concat", List.of(actor, " and ", new Document("$toString", others),
+                new Document("$cond", List.of(new Document("$eq", List.of(others, 1)), " other ", " others ")),
+                action))));
+
+        return List.of(new Document("$set", fields), new Document("$set", new Document("message", message)));
+    }
+
+    private void push(String userId) {
+        Set<String> collapseKeys = pendingPushes.remove(userId);
+        if (collapseKeys == null || collapseKeys.isEmpty() || !sessionRegistry.isConnected(userId)) {
+            return;
+        }
+        lastPushAt.put(userId, System.currentTimeMillis());
+        try {
+            Query query = Query.query(Criteria.where("collapseKey").in(collapseKeys));
+            for (Notification notification : mongoTemplate.find(query, Notification.class)) {
+                messagingTemplate.convertAndSendToUser(userId, "/topic/notifications", notification);
+            }
+        } catch (Exception e) {
+            logger.error("Error pushing collapsed notifications to user {}: {}", userId, e.getMessage());
+        }
+    }
+}
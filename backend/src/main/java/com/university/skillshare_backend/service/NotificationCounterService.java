@@ -0,0 +1,144 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.result.UpdateResult;
+import com.university.skillshare_backend.model.NotificationCounter;
+import com.university.skillshare_backend.repository.NotificationRepository;
+
+/**
+ * Unread notification count of each user, in notification_counters and cached in
+ * process.
+ *
+ * Every change to a user's notifications adjusts their counter with one atomic $inc
+ * and pushes the new value to the user over STOMP, so clients do not poll. A user's
+ * counter is created from one count of their unread notifications the first time it
+ * is needed; an adjustment that loses the race to create it is applied on top.
+ * {@link #recount} repairs a counter that drifted. Cached values are refreshed by every adjustment made on this instance
+ * and expire after a while, to pick up adjustments made on other instances.
+ */
+@Service
+public class NotificationCounterService {
+
+    public static final String UNREAD_COUNT_DESTINATION = "/topic/notifications/unread-count";
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationRepository notificationRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserSessionRegistry sessionRegistry;
+    private final Cache<String, Long> cache;
+
+    @Autowired
+    public NotificationCounterService(
+            MongoTemplate mongoTemplate,
+            NotificationRepository notificationRepository,
+            SimpMessagingTemplate messagingTemplate,
+            UserSessionRegistry sessionRegistry,
+            @Value("${notification-counters.cache-size:100000}") long cacheSize,
+            @Value("${notification-counters.cache-ttl-seconds:300}") long cacheTtlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationRepository = notificationRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.sessionRegistry = sessionRegistry;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Number of unread notifications of a user
+     */
+    public long getUnread(String userId) {
+        return cache.get(userId, this::load);
+    }
+
+    /**
+     * Adjust a user's counter after their notifications changed, and push the new value
+     *
+     * @param delta Change in the number of unread notifications; call after the change
+     * is written, so a counter created now counts it
+     */
+    public void adjust(String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        NotificationCounter counter = increment(userId, delta);
+        long unread = counter != null ? counter.getUnread() : seed(userId, delta);
+        cache.put(userId, unread);
+        push(userId, unread);
+    }
+
+    /**
+     * Recount a user's unread notifications and overwrite their counter, e.g. after
+     * the counter drifted
+     */
+    public long recount(String userId) {
+        long unread = notificationRepository.countByUserIdAndReadIsFalse(userId);
+        mongoTemplate.save(new NotificationCounter(userId, unread));
+        cache.put(userId, unread);
+        push(userId, unread);
+        return unread;
+    }
+
+    /**
+     * Read a user's counter, creating it from a count if it does not exist yet
+     */
+    private long load(String userId) {
+        NotificationCounter counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        return counter != null ? counter.getUnread() : seed(userId, 0);
+    }
+
+    /**
+     * Create a user's counter from a count of their unread notifications, which already
+     * includes the change being adjusted for. If another caller created the counter
+     * first, the change is applied to theirs instead.
+     */
+    private long seed(String userId, long delta) {
+        long unread = notificationRepository.countByUserIdAndReadIsFalse(userId);
+        UpdateResult result = mongoTemplate.upsert(
+            Query.query(Criteria.where("userId").is(userId)),
+            new Update().setOnInsert("unread", unread).set("updatedAt", new Date()),
+            NotificationCounter.class);
+        if (result.getUpsertedId() != null) {
+            return unread;
+        }
+        NotificationCounter counter = delta != 0
+            ? increment(userId, delta)
+            : mongoTemplate.findById(userId, NotificationCounter.class);
+        return counter != null ? counter.getUnread() : unread;
+    }
+
+    private NotificationCounter increment(String userId, long delta) {
+        return mongoTemplate.findAndModify(
+            Query.query(Criteria.where("userId").is(userId)),
+            new Update().inc("unread", delta).set("updatedAt", new Date()),
+            FindAndModifyOptions.options().returnNew(true),
+            NotificationCounter.class);
+    }
+
+    private void push(String userId, long unread) {
+        if (!sessionRegistry.isConnected(userId)) {
+            return;
+        }
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", userId);
+        payload.put("unread", unread);
+        messagingTemplate.convertAndSendToUser(userId, UNREAD_COUNT_DESTINATION, payload);
+    }
+}
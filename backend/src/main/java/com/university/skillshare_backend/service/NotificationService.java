@@ -1,95 +1,261 @@
 package com.university.skillshare_backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.model.Comment;
 import com.university.skillshare_backend.model.Notification;
 import com.university.skillshare_backend.model.Notification.NotificationType;
 import com.university.skillshare_backend.repository.NotificationRepository;
+import com.university.skillshare_backend.util.PageCursor;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Date;
 import java.util.Map;
 import java.util.HashMap;
 
 @Service
 public class NotificationService {
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    // Cursor groups of the unread-first inbox
+    private static final int UNREAD_GROUP = 0;
+    private static final int READ_GROUP = 1;
+    
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationCounterService counterService;
+    private final NotificationCollapseService collapseService;
+    private final NotificationWriter notificationWriter;
+    // Fold like and comment notifications about the same post into one per time window
+    private final boolean collapse;
     
     @Autowired
     public NotificationService(
             NotificationRepository notificationRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            MongoTemplate mongoTemplate,
+            NotificationCounterService counterService,
+            NotificationCollapseService collapseService,
+            NotificationWriter notificationWriter,
+            @Value("${notifications.collapse-enabled:true}") boolean collapse) {
         this.notificationRepository = notificationRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.counterService = counterService;
+        this.collapseService = collapseService;
+        this.notificationWriter = notificationWriter;
+        this.collapse = collapse;
     }
     
     /**
-     * Get all notifications for a user
+     * Get a user's newest notifications, at most MAX_PAGE_SIZE of them
+     * 
+     * @deprecated Use {@link #getInbox}, which pages through all of them
      */
+    @Deprecated
     public List<Notification> getUserNotifications(String userId) {
-        return notificationRepository.findByUserId(userId);
+        return getInbox(userId, null, MAX_PAGE_SIZE, false, false, null).getItems();
+    }
+    
+    /**
+     * Get one page of a user's inbox, newest first
+     * 
+     * @param userId The user ID
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param unreadOnly Only unread notifications
+     * @param unreadFirst All unread notifications before the read ones (ignored with unreadOnly)
+     * @param types Only these types, or null/empty for all
+     * @return The page and the cursor of the next one
+     */
+    public CursorPage<Notification> getInbox(String userId, String cursor, int limit,
+                                             boolean unreadOnly, boolean unreadFirst,
+                                             Collection<NotificationType> types) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
+        boolean grouped = unreadFirst && !unreadOnly;
+        
+        // Fetch one extra notification to know whether another page exists
+        List<Notification> notifications = new ArrayList<>();
+        if (unreadOnly) {
+            notifications.addAll(findInboxPage(userId, List.of(false), after, types, pageSize + 1));
+        } else if (grouped) {
+            // Unread ones, then read ones: at most one query per group
+            int startGroup = after == null ? UNREAD_GROUP : after.getGroup();
+            for (int group = startGroup; group <= READ_GROUP && notifications.size() <= pageSize; group++) {
+                notifications.addAll(findInboxPage(userId, List.of(group == READ_GROUP),
+                    group == startGroup ? after : null, types, pageSize + 1 - notifications.size()));
+            }
+        } else {
+            notifications.addAll(findInboxPage(userId, List.of(false, true), after, types, pageSize + 1));
+        }
+        
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            notifications = new ArrayList<>(notifications.subList(0, pageSize));
+            Notification last = notifications.get(pageSize - 1);
+            int group = grouped && last.isRead() ? READ_GROUP : UNREAD_GROUP;
+            nextCursor = new PageCursor(group, last.getCreatedAt().getTime(), last.getId()).encode();
+        }
+        return new CursorPage<>(notifications, nextCursor);
     }
     
     /**
-     * Get unread notifications for a user
+     * Keyset query on the (userId, read, createdAt desc, _id desc) index
      */
+    private List<Notification> findInboxPage(String userId, List<Boolean> read, PageCursor after,
+                                             Collection<NotificationType> types, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("read").in(read);
+        if (types != null && !types.isEmpty()) {
+            criteria.and("type").in(types);
+        }
+        if (after != null) {
+            criteria.and("createdAt").lte(after.getDate()).orOperator(
+                Criteria.where("createdAt").lt(after.getDate()),
+                Criteria.where("id").lt(after.getId()));
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+            .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+    
+    /**
+     * Get a user's newest unread notifications, at most MAX_PAGE_SIZE of them
+     * 
+     * @deprecated Use {@link #getInbox} with unreadOnly, which pages through all of them
+     */
+    @Deprecated
     public List<Notification> getUnreadNotifications(String userId) {
-        return notificationRepository.findByUserIdAndReadIsFalse(userId);
+        return getInbox(userId, null, MAX_PAGE_SIZE, true, false, null).getItems();
     }
     
     /**
      * Count unread notifications
      */
     public long countUnreadNotifications(String userId) {
-        return notificationRepository.countByUserIdAndReadIsFalse(userId);
+        return counterService.getUnread(userId);
     }
     
     /**
      * Mark a notification as read
      */
     public Notification markAsRead(String notificationId) {
-        Optional<Notification> optNotification = notificationRepository.findById(notificationId);
-        if (optNotification.isPresent()) {
-            Notification notification = optNotification.get();
-            notification.setRead(true);
-            return notificationRepository.save(notification);
-        }
-        return null;
+        return setRead(notificationId, true);
     }
     
     /**
      * Mark a notification as unread
      */
     public Notification markAsUnread(String notificationId) {
-        Optional<Notification> optNotification = notificationRepository.findById(notificationId);
-        if (optNotification.isPresent()) {
-            Notification notification = optNotification.get();
-            notification.setRead(false);
-            return notificationRepository.save(notification);
+        return setRead(notificationId, false);
+    }
+    
+    /**
+     * Flip a notification's read flag only if it is not set that way already, so the
+     * unread counter is adjusted exactly once however many times this is called
+     */
+    private Notification setRead(String notificationId, boolean read) {
+        Notification notification = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("id").is(notificationId).and("read").is(!read)),
+            Update.update("read", read),
+            FindAndModifyOptions.options().returnNew(true),
+            Notification.class);
+        if (notification == null) {
+            // Missing, or already in that state
+            return notificationRepository.findById(notificationId).orElse(null);
         }
-        return null;
+        counterService.adjust(notification.getUserId(), read ? -1 : 1);
+        return notification;
+    }
+    
+    /**
+     * Mark all user notifications as read, with one updateMany
+     * 
+     * @return Number of notifications that were unread
+     */
+    public long markAllAsRead(String userId) {
+        Query unread = Query.query(Criteria.where("userId").is(userId).and("read").is(false));
+        long modified = mongoTemplate.updateMulti(unread, Update.update("read", true), Notification.class)
+            .getModifiedCount();
+        counterService.adjust(userId, -modified);
+        return modified;
     }
     
     /**
-     * Mark all user notifications as read
+     * Mark some of a user's notifications as read or unread, with one updateMany.
+     * IDs of other users' notifications are ignored.
+     * 
+     * @return Number of notifications whose state changed
      */
-    public void markAllAsRead(String userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndReadIsFalse(userId);
-        for (Notification notification : notifications) {
-            notification.setRead(true);
+    public long setRead(String userId, Collection<String> notificationIds, boolean read) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
         }
-        notificationRepository.saveAll(notifications);
+        Query query = Query.query(Criteria.where("userId").is(userId)
+            .and("id").in(notificationIds)
+            .and("read").is(!read));
+        long modified = mongoTemplate.updateMulti(query, Update.update("read", read), Notification.class)
+            .getModifiedCount();
+        counterService.adjust(userId, read ? -modified : modified);
+        return modified;
     }
     
     /**
      * Delete a notification
      */
     public void deleteNotification(String notificationId) {
-        notificationRepository.deleteById(notificationId);
+        Notification deleted = mongoTemplate.findAndRemove(
+            Query.query(Criteria.where("id").is(notificationId)), Notification.class);
+        if (deleted != null && !deleted.isRead()) {
+            counterService.adjust(deleted.getUserId(), -1);
+        }
+    }
+    
+    /**
+     * Delete some of a user's notifications, with one deleteMany.
+     * IDs of other users' notifications are ignored.
+     * 
+     * @return Number of notifications deleted
+     */
+    public long deleteNotifications(String userId, Collection<String> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+        return deleteCounted(userId, Criteria.where("userId").is(userId).and("id").in(notificationIds));
+    }
+    
+    /**
+     * Delete a user's notifications created before a date, with one deleteMany
+     * 
+     * @return Number of notifications deleted
+     */
+    public long deleteNotificationsBefore(String userId, Date before) {
+        return deleteCounted(userId, Criteria.where("userId").is(userId).and("createdAt").lt(before));
+    }
+    
+    /**
+     * Delete the unread and then the read notifications matching the criteria, so the
+     * unread counter can be adjusted by exactly the number of unread ones deleted
+     */
+    private long deleteCounted(String userId, Criteria criteria) {
+        long unreadDeleted = mongoTemplate.remove(
+            Query.query(new Criteria().andOperator(criteria, Criteria.where("read").is(false))),
+            Notification.class).getDeletedCount();
+        counterService.adjust(userId, -unreadDeleted);
+        long readDeleted = mongoTemplate.remove(Query.query(criteria), Notification.class).getDeletedCount();
+        return unreadDeleted + readDeleted;
     }
     
     /**
@@ -97,17 +263,19 @@ public class NotificationService {
      */
     public Notification createNotification(String userId, String title, String message, 
                                           NotificationType type, String relatedItemId) {
+        return createNotification(userId, title, message, type, relatedItemId, null);
+    }
+    
+    /**
+     * Create a new notification with metadata, e.g. where to jump to. It is written,
+     * counted and pushed in the background; the returned notification already has its ID.
+     */
+    public Notification createNotification(String userId, String title, String message, 
+                                          NotificationType type, String relatedItemId,
+                                          Map<String, String> metadata) {
         Notification notification = new Notification(userId, title, message, type, relatedItemId);
-        notification = notificationRepository.save(notification);
-        
-        // Send real-time notification via WebSocket
-        messagingTemplate.convertAndSendToUser(
-            userId, 
-            "/topic/notifications", 
-            notification
-        );
-        
-        return notification;
+        notification.setMetadata(metadata);
+        return notificationWriter.enqueue(notification);
     }
     
     /**
@@ -136,33 +304,79 @@ public class NotificationService {
     }
     
     /**
-     * Create a like notification
+     * Create a like notification, or count the like in the post's collapsed one
      */
-    public Notification createLikeNotification(String userId, String likerName, String postId) {
+    public void createLikeNotification(String userId, String likerId, String likerName, String postId) {
         String title = "New Like";
-        String message = likerName + " liked your post";
-        Notification notification = createNotification(userId, title, message, NotificationType.LIKE, postId);
-        notification.setMetadata(new HashMap<>());
-        return notification;
+        String action = "liked your post";
+        if (collapse) {
+            collapseService.collapse(userId, NotificationType.LIKE, postId, title, likerId, likerName, action,
+                new HashMap<>());
+        } else {
+            createNotification(userId, title, likerName + " " + action, NotificationType.LIKE, postId, new HashMap<>());
+        }
     }
 
-    public Notification createCommentNotification(String userId, String commenterName, String postId, int commentPosition) {
+    /**
+     * Create a comment notification that links to the comment, or count the comment
+     * in the post's collapsed one (which then links to the latest comment)
+     */
+    public void createCommentNotification(String userId, String commenterName, String postId, Comment comment) {
         String title = "New Comment on Your Post";
-        String message = commenterName + " commented on your post";
-        Notification notification = createNotification(userId, title, message, NotificationType.COMMENT, postId);
-        
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("commentPosition", String.valueOf(commentPosition));
-        notification.setMetadata(metadata);
-        
-        return notification;
+        String action = "commented on your post";
+        if (collapse) {
+            collapseService.collapse(userId, NotificationType.COMMENT, postId, title, comment.getUserId(),
+                commenterName, action, commentMetadata(comment));
+        } else {
+            createNotification(userId, title, commenterName + " " + action, NotificationType.COMMENT, postId,
+                commentMetadata(comment));
+        }
+    }
+
+    /**
+     * Create a notification for a reply to the user's comment, linking to the reply
+     */
+    public Notification createReplyNotification(String userId, String replierName, String postId, Comment reply) {
+        String title = "New Reply";
+        String message = replierName + " replied to your comment";
+        return createNotification(userId, title, message, NotificationType.COMMENT, postId, commentMetadata(reply));
     }
 
-    public Notification createMentionNotification(String userId, String mentionerName, String postId, int commentPosition) {
+    /**
+     * Create a mention notification that links to the comment
+     */
+    public Notification createMentionNotification(String userId, String mentionerName, String postId, Comment comment) {
+        return createMentionNotifications(List.of(userId), mentionerName, postId, comment).get(0);
+    }
+
+    /**
+     * Create the mention notifications of a comment; queued together, they are
+     * normally written in the same insertMany
+     */
+    public List<Notification> createMentionNotifications(Collection<String> userIds, String mentionerName, String postId, Comment comment) {
         String title = "New Mention";
         String message = mentionerName + " mentioned you in a comment";
-        Notification notification = createNotification(userId, title, message, NotificationType.MENTION, postId);
-        notification.setMetadata(Map.of("commentPosition", String.valueOf(commentPosition)));
-        return notification;
+        List<Notification> notifications = new ArrayList<>();
+        for (String userId : userIds) {
+            Notification notification = new Notification(userId, title, message, NotificationType.MENTION, postId);
+            notification.setMetadata(commentMetadata(comment));
+            notifications.add(notification);
+        }
+        notifications.forEach(notificationWriter::enqueue);
+        return notifications;
+    }
+
+    /**
+     * Where a comment is: its ID, which clients use to find it on the page, and its
+     * sequence number within the post, which they pass to the post's comments endpoint
+     * (?sequence=) to open the thread at the comment
+     */
+    private static Map<String, String> commentMetadata(Comment comment) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("commentId", comment.getId());
+        if (comment.getSequence() != null) {
+            metadata.put("commentSequence", String.valueOf(comment.getSequence()));
+        }
+        return metadata;
     }
 }
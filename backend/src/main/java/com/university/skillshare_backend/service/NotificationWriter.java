@@ -0,0 +1,380 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.util.LatencyHistogram;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes new notifications in the background, so the requests that create them
+ * (likes, comments, follows, group joins) do not wait on Mongo.
+ *
+ * Callers enqueue into a bounded queue. One writer thread takes notifications off it
+ * in batches, writing a batch with one insertMany when it is full or when its first
+ * notification has waited max-delay-ms, then adjusts the unread counters (once per
+ * user in the batch) and pushes the notifications. When the queue is full the
+ * overflow policy decides: BLOCK waits for space, DROP_OLDEST discards the oldest
+ * queued notification, CALLER_RUNS writes on the caller's thread. After stop(),
+ * notifications are written on the caller's thread.
+ *
+ * A batch that fails on a transient error (e.g. a lost connection) is retried up to
+ * max-attempts times with exponential backoff, skipping notifications an earlier
+ * attempt already wrote. The insert is ordered, so when one notification is refused
+ * the ones before it are written and counted, it is dropped, and the rest are retried.
+ */
+@Service
+public class NotificationWriter {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        CALLER_RUNS
+    }
+
+    // How long the idle writer waits for a notification before checking for shutdown
+    private static final long IDLE_POLL_MS = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationWriter.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationCounterService counterService;
+    private final UserSessionRegistry sessionRegistry;
+    private final BlockingQueue<Notification> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writerThread;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedNotifications = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    @Autowired
+    public NotificationWriter(
+            MongoTemplate mongoTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            NotificationCounterService counterService,
+            UserSessionRegistry sessionRegistry,
+            @Value("${notifications.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${notifications.writer.batch-size:500}") int batchSize,
+            @Value("${notifications.writer.max-delay-ms:50}") long maxDelayMs,
+            @Value("${notifications.writer.overflow-policy:CALLER_RUNS}") OverflowPolicy overflowPolicy,
+            @Value("${notifications.writer.max-attempts:3}") int maxAttempts,
+            @Value("${notifications.writer.retry-backoff-ms:100}") long retryBackoffMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.counterService = counterService;
+        this.sessionRegistry = sessionRegistry;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.overflowPolicy = overflowPolicy;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::run, "notification-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop the writer and write what is still queued
+     */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Notification> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Queue a new notification to be written and pushed. Its ID is assigned now, so
+     * the caller can refer to it before it is written.
+     *
+     * @return The notification
+     */
+    public Notification enqueue(Notification notification) {
+        if (notification.getId() == null) {
+            notification.setId(new ObjectId().toHexString());
+        }
+        enqueued.increment();
+        if (stopped) {
+            writeOnCaller(notification);
+            return notification;
+        }
+        if (queue.offer(notification)) {
+            if (stopped && queue.remove(notification)) {
+                // Queued after stop() drained the queue
+                writeOnCaller(notification);
+            }
+            return notification;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    writeOnCaller(notification);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(notification)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            default:
+                writeOnCaller(notification);
+        }
+        return notification;
+    }
+
+    /**
+     * Queue depth, counts and batch sizes since startup
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("callerRuns", callerRuns.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batchCount);
+        stats.put("meanBatchSize", batchCount == 0 ? 0.0 : (double) batchedNotifications.sum() / batchCount);
+        stats.put("maxBatchSize", maxBatchSize.get());
+        stats.put("batchWriteLatency", batchLatency.getStats());
+        return stats;
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Notification first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + maxDelayNanos);
+
+                long start = System.nanoTime();
+                write(batch);
+                batchLatency.recordSince(start);
+                batches.increment();
+                batchedNotifications.add(batch.size());
+                maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error in notification writer: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Add queued notifications until the batch is full or the deadline passes
+     */
+    private void fillBatch(List<Notification> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Notification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeOnCaller(Notification notification) {
+        callerRuns.increment();
+        write(List.of(notification));
+    }
+
+    /**
+     * Insert the notifications with one insertMany, then count and push those written
+     */
+    private void write(List<Notification> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Notification> landed = insert(batch);
+        written.add(landed.size());
+        failed.add(batch.size() - landed.size());
+
+        Map<String, Long> unreadByUser = new HashMap<>();
+        for (Notification notification : landed) {
+            unreadByUser.merge(notification.getUserId(), 1L, Long::sum);
+        }
+        unreadByUser.forEach(counterService::adjust);
+
+        for (Notification notification : landed) {
+            if (sessionRegistry.isConnected(notification.getUserId())) {
+                try {
+                    messagingTemplate.convertAndSendToUser(notification.getUserId(), "/topic/notifications", notification);
+                } catch (Exception e) {
+                    logger.error("Error pushing notification to user {}: {}", notification.getUserId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert the notifications, retrying transient failures
+     *
+     * @return The notifications written, in batch order
+     */
+    private List<Notification> insert(List<Notification> batch) {
+        List<Notification> landed = new ArrayList<>(batch.size());
+        List<Notification> remaining = batch;
+        int attempt = 1;
+        while (!remaining.isEmpty()) {
+            try {
+                if (attempt > 1) {
+                    remaining = unwritten(remaining, landed);
+                    if (remaining.isEmpty()) {
+                        return landed;
+                    }
+                }
+                mongoTemplate.insert(remaining, Notification.class);
+                landed.addAll(remaining);
+                return landed;
+            } catch (Exception e) {
+                BulkWriteError error = firstWriteError(e);
+                if (error != null) {
+                    // Ordered insert: the ones before the refused notification were written
+                    int index = error.getIndex();
+                    landed.addAll(remaining.subList(0, index));
+                    logger.error("Error writing notification {}: {}", remaining.get(index).getId(), error.getMessage());
+                    remaining = remaining.subList(index + 1, remaining.size());
+                } else if (isTransient(e) && attempt < maxAttempts) {
+                    logger.warn("Error writing {} notifications, retrying: {}", remaining.size(), e.getMessage());
+                    if (!sleep(retryBackoffMs << (attempt - 1))) {
+                        return landed;
+                    }
+                    attempt++;
+                } else {
+                    logger.error("Error writing {} notifications: {}", remaining.size(), e.getMessage());
+                    return landed;
+                }
+            }
+        }
+        return landed;
+    }
+
+    /**
+     * Drop the notifications a failed attempt wrote after all, adding them to landed
+     */
+    private List<Notification> unwritten(List<Notification> notifications, List<Notification> landed) {
+        Query query = Query.query(Criteria.where("id").in(notifications.stream().map(Notification::getId).toList()));
+        query.fields().include("id");
+        Set<String> writtenIds = mongoTemplate.find(query, Notification.class).stream()
+            .map(Notification::getId)
+            .collect(Collectors.toSet());
+        List<Notification> unwritten = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            if (writtenIds.contains(notification.getId())) {
+                landed.add(notification);
+            } else {
+                unwritten.add(notification);
+            }
+        }
+        return unwritten;
+    }
+
+    private static BulkWriteError firstWriteError(Throwable e) {
+        if (e instanceof BulkOperationException bulk && !bulk.getErrors().isEmpty()) {
+            return bulk.getErrors().get(0);
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulk && !bulk.getWriteErrors().isEmpty()) {
+                return bulk.getWriteErrors().get(0);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTransient(Exception e) {
+        return e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.dto.PostCard;
+import com.university.skillshare_backend.dto.UserSummary;
+import com.university.skillshare_backend.model.Like;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.PostInsights;
+import com.university.skillshare_backend.repository.PostInsightsRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+
+/**
+ * Builds feed cards for many posts at once. The number of queries does not depend
+ * on the number of posts: one per collection, each with an $in over the whole batch.
+ * Like and comment counts come from the insights counters rather than being counted.
+ */
+@Service
+public class PostCardService {
+
+    public static final int MAX_CARDS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final PostRepository postRepository;
+    private final PostInsightsRepository insightsRepository;
+    private final UserSummaryLoader userSummaryLoader;
+
+    @Autowired
+    public PostCardService(
+            MongoTemplate mongoTemplate,
+            PostRepository postRepository,
+            PostInsightsRepository insightsRepository,
+            UserSummaryLoader userSummaryLoader) {
+        this.mongoTemplate = mongoTemplate;
+        this.postRepository = postRepository;
+        this.insightsRepository = insightsRepository;
+        this.userSummaryLoader = userSummaryLoader;
+    }
+
+    /**
+     * Get the cards of the given posts
+     *
+     * @param postIds Post IDs, in display order
+     * @param viewerId The user viewing the feed, or null if not signed in
+     * @return One card per existing post, in the order of postIds
+     */
+    public List<PostCard> getPostCards(List<String> postIds, String viewerId) {
+        if (postIds == null || postIds.isEmpty()) {
+            return List.of();
+        }
+        Set<String> ids = new LinkedHashSet<>(postIds);
+        if (ids.size() > MAX_CARDS) {
+            throw new IllegalArgumentException("At most " + MAX_CARDS + " posts can be requested at once");
+        }
+
+        Map<String, Post> posts = new HashMap<>();
+        postRepository.findAllById(ids).forEach(post -> posts.put(post.getId(), post));
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> authorIds = posts.values().stream().map(Post::getUserId).collect(Collectors.toSet());
+        Map<String, UserSummary> authors = userSummaryLoader.loadAll(authorIds);
+        Set<String> likedByViewer = findLikedByViewer(posts.keySet(), viewerId);
+        Map<String, PostInsights> insights = insightsRepository.findByPostIdIn(posts.keySet()).stream()
+            .collect(Collectors.toMap(PostInsights::getPostId, i -> i, (a, b) -> a));
+
+        List<PostCard> cards = new ArrayList<>(posts.size());
+        for (String postId : ids) {
+            Post post = posts.get(postId);
+            if (post == null) {
+                continue;
+            }
+            PostCard card = new PostCard();
+            card.setPost(post);
+            PostInsights postInsights = insights.getOrDefault(postId, new PostInsights(postId));
+            card.setAuthor(authors.get(post.getUserId()));
+            card.setLikeCount(postInsights.getLikeCount());
+            card.setCommentCount(postInsights.getCommentCount());
+            card.setHasLiked(likedByViewer.contains(postId));
+            card.setInsights(postInsights);
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    private Set<String> findLikedByViewer(Collection<String> postIds, String viewerId) {
+        if (viewerId == null || viewerId.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("postId").in(postIds).and("userId").is(viewerId));
+        query.fields().include("postId");
+        Set<String> liked = new HashSet<>();
+        mongoTemplate.find(query, Like.class).forEach(like -> liked.add(like.getPostId()));
+        return liked;
+    }
+}
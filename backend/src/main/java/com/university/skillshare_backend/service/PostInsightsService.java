@@ -1,23 +1,68 @@
 package com.university.skillshare_backend.service;
 
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.util.Assert;
 import com.university.skillshare_backend.model.PostInsights;
 import com.university.skillshare_backend.repository.PostInsightsRepository;
-import java.util.Set;
+import com.university.skillshare_backend.service.InsightsTimeSeriesService.Metric;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import jakarta.annotation.PreDestroy;
 import com.university.skillshare_backend.repository.LikeRepository;
 import com.university.skillshare_backend.repository.CommentRepository;
+import com.university.skillshare_backend.util.HyperLogLog;
 
+/**
+ * Per-post view and engagement counters.
+ *
+ * Counters are only changed with atomic updates on the insights document ($add in an
+ * update pipeline, which also recomputes the engagement rate), never by reading,
+ * modifying and saving it, so concurrent likes, comments and views cannot overwrite
+ * each other. Callers adjust a counter only when their write actually changed
+ * something (e.g. a like was inserted), so reads never have to count.
+ */
 @Service
 public class PostInsightsService {
     private static final Logger logger = LoggerFactory.getLogger(PostInsightsService.class);
 
+    // Posts per bulk write when flushing views
+    private static final int FLUSH_CHUNK_SIZE = 1000;
+    // Conditional writes of one post's viewer sketch before giving up until the next flush
+    private static final int SKETCH_MERGE_ATTEMPTS = 3;
+
+    // (likes + comments + shares) / max(views, 1) as a percentage, capped at 100
+    private static final Document ENGAGEMENT_RATE = new Document("$min", List.of(100,
+        new Document("$multiply", List.of(100,
+            new Document("$divide", List.of(
+                new Document("$add", List.of(counter("likeCount"), counter("commentCount"), counter("shareCount"))),
+                new Document("$max", List.of(1, counter("views")))
+            ))
+        ))
+    ));
+
     @Autowired
     private PostInsightsRepository insightsRepository;
     
@@ -30,18 +75,28 @@ public class PostInsightsService {
     @Autowired
     private CommentRepository commentRepository;
 
-    private final ConcurrentHashMap<String, Set<String>> uniqueViewers = new ConcurrentHashMap<>();
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InsightsTimeSeriesService timeSeriesService;
+
+    @Autowired
+    private AuthorInsightsService authorInsightsService;
+
+    // Views not yet written to Mongo, per post
+    private final ConcurrentHashMap<String, PendingViews> pendingViews = new ConcurrentHashMap<>();
+    // Counters of idle posts removed from pendingViews, drained once more by the next flush
+    private final Queue<PendingViews> retired = new ConcurrentLinkedQueue<>();
 
-    @Transactional(readOnly = true) 
     public PostInsights getInsights(String postId) {
         Assert.hasText(postId, "PostId must not be empty");
         try {
-            return insightsRepository.findByPostId(postId)
-                .orElseGet(() -> {
-                    // Create new insights if they don't exist
-                    PostInsights insights = new PostInsights(postId);
-                    return insightsRepository.save(insights);
-                });
+            PostInsights insights = mongoTemplate.findOne(seeded(postId), PostInsights.class);
+            return insights != null ? insights : createInsights(postId);
         } catch (Exception e) {
             logger.error("Error fetching insights for post {}: {}", postId, e.getMessage());
             // Return empty insights rather than throwing error
@@ -49,103 +104,335 @@ public class PostInsightsService {
         }
     }
 
-    @Transactional
-    public synchronized void incrementViews(String postId, String viewerId) {
+    /**
+     * Record a view. Only in-memory counters are touched; they are written to
+     * Mongo by {@link #flushViews()}.
+     */
+    public void incrementViews(String postId, String viewerId) {
         Assert.hasText(postId, "PostId must not be empty");
         Assert.hasText(viewerId, "ViewerId must not be empty");
 
-        try {
-            PostInsights insights = getInsights(postId);
-            Set<String> viewers = uniqueViewers.computeIfAbsent(postId, k -> ConcurrentHashMap.newKeySet());
-            
-            insights.setViews(insights.getViews() + 1);
-            if (viewers.add(viewerId)) {
-                insights.setUniqueViewers(viewers.size());
+        PendingViews pending = pendingViews.computeIfAbsent(postId, PendingViews::new);
+        pending.views.increment();
+        if (pending.viewers.add(viewerId)) {
+            pending.viewersChanged.set(true);
+        }
+    }
+
+    /**
+     * Write the views recorded since the last flush with one bulk $inc per chunk of
+     * posts, merge new viewers into the stored sketches, then broadcast the new
+     * insights of each of those posts once.
+     * Trending scores get their views from here too, in one batch per post.
+     */
+    @Scheduled(fixedDelayString = "${insights.view-flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flushViews() {
+        Map<String, ViewTotals> totals = new HashMap<>();
+        // Counters retired by the previous flush only hold views that raced with their removal
+        PendingViews retiredViews;
+        while ((retiredViews = retired.poll()) != null) {
+            retiredViews.drainInto(totals);
+        }
+        pendingViews.forEach((postId, pending) -> {
+            if (!pending.drainInto(totals)) {
+                // No views since the last flush: stop tracking the post
+                if (pendingViews.remove(postId, pending)) {
+                    retired.add(pending);
+                }
             }
-            updateEngagementRate(insights);
-            
-            PostInsights savedInsights = insightsRepository.save(insights);
-            broadcastInsights(postId, savedInsights);
-            
-        } catch (Exception e) {
-            logger.error("Error incrementing views for post {}: {}", postId, e.getMessage());
-            // Don't throw exception to prevent 500 errors
+        });
+        if (totals.isEmpty()) {
+            return;
+        }
+        totals.forEach((postId, viewTotals) -> trendingService.recordViews(postId, viewTotals.views));
+
+        List<String> postIds = new ArrayList<>(totals.keySet());
+        for (int start = 0; start < postIds.size(); start += FLUSH_CHUNK_SIZE) {
+            List<String> chunk = postIds.subList(start, Math.min(start + FLUSH_CHUNK_SIZE, postIds.size()));
+            try {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostInsights.class);
+                for (String postId : chunk) {
+                    ops.upsert(Query.query(Criteria.where("postId").is(postId)),
+                        incrementUpdate(new Document("views", totals.get(postId).views)));
+                }
+                ops.execute();
+            } catch (Exception e) {
+                logger.error("Error flushing views of {} posts, retrying next flush: {}", chunk.size(), e.getMessage());
+                for (String postId : chunk) {
+                    requeue(postId, totals.get(postId));
+                }
+                continue;
+            }
+            chunk.forEach(postId -> recordEvent(postId, Metric.VIEWS, totals.get(postId).views));
+            mergeViewerSketches(chunk, totals);
+            insightsRepository.findByPostIdIn(chunk)
+                .forEach(insights -> broadcastInsights(insights.getPostId(), insights));
+        }
+    }
+
+    /**
+     * Merge the viewers seen here into each post's stored sketch and update uniqueViewers
+     * from it. Other nodes merge into the same sketches, so writes are conditional on
+     * the sketch version that was read and retried on conflict.
+     */
+    private void mergeViewerSketches(List<String> postIds, Map<String, ViewTotals> totals) {
+        List<String> changed = postIds.stream()
+            .filter(postId -> totals.get(postId).viewers != null)
+            .collect(Collectors.toList());
+        if (changed.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("postId").in(changed));
+        query.fields().include("postId", "viewerSketch", "viewerSketchVersion");
+        Map<String, PostInsights> stored = new HashMap<>();
+        mongoTemplate.find(query, PostInsights.class).forEach(insights -> stored.put(insights.getPostId(), insights));
+
+        for (String postId : changed) {
+            HyperLogLog viewers = totals.get(postId).viewers;
+            try {
+                PostInsights current = stored.get(postId);
+                int attempt = 0;
+                while (!compareAndSetSketch(postId, current, viewers)) {
+                    if (++attempt == SKETCH_MERGE_ATTEMPTS) {
+                        throw new IllegalStateException("Too many concurrent sketch updates");
+                    }
+                    current = mongoTemplate.findOne(Query.query(Criteria.where("postId").is(postId)), PostInsights.class);
+                }
+            } catch (Exception e) {
+                logger.error("Error merging viewers of post {}, retrying next flush: {}", postId, e.getMessage());
+                requeue(postId, new ViewTotals(0, viewers));
+            }
+        }
+    }
+
+    private boolean compareAndSetSketch(String postId, PostInsights current, HyperLogLog viewers) {
+        HyperLogLog merged = HyperLogLog.fromBytes(current == null ? null : current.getViewerSketch());
+        long previousEstimate = merged.estimate();
+        merged.merge(viewers);
+        long estimate = merged.estimate();
+        long version = current == null ? 0 : current.getViewerSketchVersion();
+
+        Criteria versionCriteria = version == 0
+            ? new Criteria().orOperator(Criteria.where("viewerSketchVersion").exists(false),
+                Criteria.where("viewerSketchVersion").is(0L))
+            : Criteria.where("viewerSketchVersion").is(version);
+        Update update = new Update()
+            .set("viewerSketch", merged.toBytes())
+            .set("viewerSketchVersion", version + 1)
+            .set("uniqueViewers", (int) estimate);
+        boolean written = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("postId").is(postId)).addCriteria(versionCriteria),
+            update,
+            PostInsights.class).getModifiedCount() > 0;
+        if (written) {
+            // Viewers seen for the first time, for the hourly series
+            recordEvent(postId, Metric.UNIQUE_VIEWERS, Math.max(0, estimate - previousEstimate));
         }
+        return written;
     }
 
-    @Transactional
-    public void syncInsights(String postId) {
+    /**
+     * Pass a change to a post's insights on to the time series and the author's rollup
+     */
+    private void recordEvent(String postId, Metric metric, long delta) {
+        timeSeriesService.record(postId, metric, delta);
+        authorInsightsService.record(postId, metric, delta);
+    }
+
+    /**
+     * Put counts that could not be written back for the next flush
+     */
+    private void requeue(String postId, ViewTotals viewTotals) {
+        PendingViews pending = pendingViews.computeIfAbsent(postId, PendingViews::new);
+        pending.views.add(viewTotals.views);
+        if (viewTotals.viewers != null) {
+            pending.viewers.merge(viewTotals.viewers);
+            pending.viewersChanged.set(true);
+        }
+    }
+
+    /**
+     * Recount likes and comments from their collections and store the result.
+     * Repairs counters that have drifted; not needed on any request path.
+     */
+    public PostInsights syncInsights(String postId) {
         try {
-            PostInsights insights = getInsights(postId);
-            
-            // Get actual counts from repositories
             long actualLikeCount = likeRepository.countByPostId(postId);
             long actualCommentCount = commentRepository.countByPostId(postId);
+            PostInsights previous = insightsRepository.findByPostId(postId).orElseGet(() -> new PostInsights(postId));
             
-            // Update counts
-            insights.setLikeCount((int) actualLikeCount);
-            insights.setCommentCount((int) actualCommentCount);
-            
-            // Update engagement rate
-            updateEngagementRate(insights);
-            
-            // Save and broadcast
-            PostInsights savedInsights = insightsRepository.save(insights);
+            Document counts = new Document("likeCount", actualLikeCount)
+                .append("commentCount", actualCommentCount);
+            PostInsights savedInsights = apply(postId, counts);
+            // Corrections count towards the author's totals, not towards the series
+            authorInsightsService.record(postId, Metric.LIKES, savedInsights.getLikeCount() - previous.getLikeCount());
+            authorInsightsService.record(postId, Metric.COMMENTS, savedInsights.getCommentCount() - previous.getCommentCount());
             broadcastInsights(postId, savedInsights);
             
             logger.debug("Synced insights for post {}: likes={}, comments={}", 
                 postId, actualLikeCount, actualCommentCount);
+            return savedInsights;
         } catch (Exception e) {
             logger.error("Error syncing insights for post {}: {}", postId, e.getMessage());
+            return getInsights(postId);
         }
     }
 
-    @Transactional
-    public void updateLikes(String postId, int likeCount) {
-        try {
-            PostInsights insights = getInsights(postId);
-            insights.setLikeCount(likeCount);
-            updateEngagementRate(insights);
-            PostInsights savedInsights = insightsRepository.save(insights);
-            broadcastInsights(postId, savedInsights);
-            
-            logger.debug("Updated likes for post {}: {}", postId, likeCount);
-        } catch (Exception e) {
-            logger.error("Error updating likes for post {}: {}", postId, e.getMessage());
-            syncInsights(postId); // Fallback to sync if update fails
-        }
+    /**
+     * Atomically add to the like count
+     *
+     * @param postId The post ID
+     * @param delta +1 after a like was inserted, -1 after one was deleted
+     * @return The insights after the update
+     */
+    public PostInsights adjustLikes(String postId, int delta) {
+        PostInsights insights = adjust(postId, "likeCount", delta);
+        recordEvent(postId, Metric.LIKES, delta);
+        trendingService.recordLikes(postId, delta);
+        return insights;
     }
 
-    @Transactional
-    public void updateComments(String postId, int commentCount) {
-        try {
-            PostInsights insights = getInsights(postId);
-            insights.setCommentCount(commentCount);
-            updateEngagementRate(insights);
-            PostInsights savedInsights = insightsRepository.save(insights);
-            broadcastInsights(postId, savedInsights);
-            
-            logger.debug("Updated comments for post {}: {}", postId, commentCount);
-        } catch (Exception e) {
-            logger.error("Error updating comments for post {}: {}", postId, e.getMessage());
-            syncInsights(postId); // Fallback to sync if update fails
-        }
+    /**
+     * Atomically add to the comment count
+     *
+     * @param postId The post ID
+     * @param delta +1 after a comment was inserted, -1 after one was deleted
+     * @return The insights after the update
+     */
+    public PostInsights adjustComments(String postId, int delta) {
+        PostInsights insights = adjust(postId, "commentCount", delta);
+        recordEvent(postId, Metric.COMMENTS, delta);
+        trendingService.recordComments(postId, delta);
+        return insights;
+    }
+
+    /**
+     * Atomically add to the share count
+     *
+     * @param postId The post ID
+     * @param delta +1 after the post was shared to a group
+     * @return The insights after the update
+     */
+    public PostInsights adjustShares(String postId, int delta) {
+        PostInsights insights = adjust(postId, "shareCount", delta);
+        recordEvent(postId, Metric.SHARES, delta);
+        return insights;
+    }
+
+    private PostInsights adjust(String postId, String counter, int delta) {
+        Assert.hasText(postId, "PostId must not be empty");
+        PostInsights insights = increment(postId, new Document(counter, delta));
+        broadcastInsights(postId, insights);
+        logger.debug("Adjusted {} for post {} by {}", counter, postId, delta);
+        return insights;
+    }
+
+    /**
+     * Create the insights of a post, starting from the current like and comment counts.
+     * If another request creates them first, theirs are kept.
+     */
+    private PostInsights createInsights(String postId) {
+        return seed(postId, new Document());
     }
 
-    private void updateEngagementRate(PostInsights insights) {
+    /**
+     * Add to counters, never letting one go below zero. Insights without like and
+     * comment counts yet (new, or only created by a view flush) are seeded first.
+     */
+    private PostInsights increment(String postId, Document increments) {
+        PostInsights insights = mongoTemplate.findAndModify(
+            seeded(postId),
+            incrementUpdate(increments),
+            FindAndModifyOptions.options().returnNew(true),
+            PostInsights.class);
+        return insights != null ? insights : seed(postId, increments);
+    }
+
+    /**
+     * Fill in the like and comment counts of a post's insights from one count of its
+     * likes and comments, creating the insights if needed, and apply the increments.
+     *
+     * A count is only written where the field is still missing; the like or comment
+     * being counted is already stored, so it is not incremented on top. Where another
+     * request seeded the field first, the increment is applied to it instead.
+     */
+    private PostInsights seed(String postId, Document increments) {
+        Document seeds = new Document("likeCount", (int) likeRepository.countByPostId(postId))
+            .append("commentCount", (int) commentRepository.countByPostId(postId));
+        Document counts = new Document();
+        seeds.forEach((field, seed) -> counts.append(field, new Document("$cond", List.of(
+            new Document("$eq", List.of(new Document("$type", "$" + field), "missing")),
+            seed,
+            incremented(field, increments.getOrDefault(field, 0))))));
+        increments.forEach((field, delta) -> counts.putIfAbsent(field, incremented(field, delta)));
+
         try {
-            double totalEngagements = Math.max(0, insights.getLikeCount() + 
-                                                insights.getCommentCount() + 
-                                                insights.getShareCount());
-            double viewCount = Math.max(1, insights.getViews());
-            double rate = (totalEngagements / viewCount) * 100;
-            insights.setEngagementRate(Math.min(100, rate)); // Cap at 100%
-        } catch (Exception e) {
-            logger.error("Error calculating engagement rate: {}", e.getMessage());
-            insights.setEngagementRate(0.0); // Fallback to 0 on error
+            return mongoTemplate.findAndModify(
+                withoutSketch(postId),
+                setCountsUpdate(counts),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                PostInsights.class);
+        } catch (DuplicateKeyException e) {
+            // Another request created the insights between the two writes; update theirs
+            return mongoTemplate.findAndModify(
+                withoutSketch(postId),
+                setCountsUpdate(counts),
+                FindAndModifyOptions.options().returnNew(true),
+                PostInsights.class);
         }
     }
 
+    /**
+     * Set counters and recompute the engagement rate in one atomic update,
+     * creating the insights document if needed
+     */
+    private PostInsights apply(String postId, Document counts) {
+        return mongoTemplate.findAndModify(
+            withoutSketch(postId),
+            setCountsUpdate(counts),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            PostInsights.class);
+    }
+
+    private static AggregationUpdate incrementUpdate(Document increments) {
+        Document counts = new Document();
+        increments.forEach((field, delta) -> counts.append(field, incremented(field, delta)));
+        return setCountsUpdate(counts);
+    }
+
+    private static Document incremented(String field, Object delta) {
+        return new Document("$max", List.of(0, new Document("$add", List.of(counter(field), delta))));
+    }
+
+    static AggregationUpdate setCountsUpdate(Document counts) {
+        AggregationOperation setCounts = context -> new Document("$set", counts);
+        AggregationOperation setRate = context -> new Document("$set", new Document("engagementRate", ENGAGEMENT_RATE));
+        return AggregationUpdate.from(List.of(setCounts, setRate));
+    }
+
+    /**
+     * Query for a post's insights that does not return the viewer sketch
+     */
+    private static Query withoutSketch(String postId) {
+        Query query = Query.query(Criteria.where("postId").is(postId));
+        query.fields().exclude("viewerSketch");
+        return query;
+    }
+
+    /**
+     * Query for a post's insights whose like and comment counts have been seeded
+     */
+    private static Query seeded(String postId) {
+        Query query = withoutSketch(postId);
+        query.addCriteria(Criteria.where("likeCount").exists(true).and("commentCount").exists(true));
+        return query;
+    }
+
+    private static Document counter(String field) {
+        return new Document("$ifNull", List.of("$" + field, 0));
+    }
+
     private void broadcastInsights(String postId, PostInsights insights) {
         try {
             messagingTemplate.convertAndSend("/topic/insights/" + postId, insights);
@@ -154,4 +441,56 @@ public class PostInsightsService {
             // Don't throw exception here to prevent transaction rollback
         }
     }
+
+    /**
+     * Views of one post since the last flush. LongAdder spreads concurrent
+     * increments over cells, so recording a view never contends on a lock.
+     *
+     * The viewer sketch is kept while the post is being viewed and merged whole on
+     * each flush where it changed; merging is idempotent, so a viewer added while a
+     * flush reads the sketch is simply written again by the next one.
+     */
+    private static class PendingViews {
+        private final String postId;
+        private final LongAdder views = new LongAdder();
+        private final HyperLogLog viewers = new HyperLogLog();
+        private final AtomicBoolean viewersChanged = new AtomicBoolean();
+
+        PendingViews(String postId) {
+            this.postId = postId;
+        }
+
+        /**
+         * Move the counts into totals
+         *
+         * @return false if there was nothing to move
+         */
+        boolean drainInto(Map<String, ViewTotals> totals) {
+            long viewCount = views.sumThenReset();
+            boolean changed = viewersChanged.getAndSet(false);
+            if (viewCount == 0 && !changed) {
+                return false;
+            }
+            ViewTotals viewTotals = totals.computeIfAbsent(postId, k -> new ViewTotals(0, null));
+            viewTotals.views += viewCount;
+            if (changed) {
+                if (viewTotals.viewers == null) {
+                    viewTotals.viewers = new HyperLogLog();
+                }
+                viewTotals.viewers.merge(viewers);
+            }
+            return true;
+        }
+    }
+
+    private static class ViewTotals {
+        private long views;
+        // Null if no new viewers were seen
+        private HyperLogLog viewers;
+
+        ViewTotals(long views, HyperLogLog viewers) {
+            this.views = views;
+            this.viewers = viewers;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.util.InvertedIndex;
+
+/**
+ * Ranked full-text search over post titles and content.
+ *
+ * The index is built once at startup and then kept up to date by PostController on
+ * every create, update and delete. Like the STOMP broker, it lives in this process,
+ * so posts written through another instance are only picked up on its next restart.
+ */
+@Service
+public class PostSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostRepository postRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Autowired
+    public PostSearchService(MongoTemplate mongoTemplate, PostRepository postRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * Index every existing post, reading only the searchable fields
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        Query query = new Query().cursorBatchSize(1000);
+        query.fields().include("title", "content");
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            posts.forEach(this::indexPost);
+            logger.info("Indexed {} posts for search", index.size());
+        } catch (Exception e) {
+            logger.error("Error building the post search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add or re-index a post after it has been saved
+     */
+    public void indexPost(Post post) {
+        index.index(post.getId(), post.getTitle(), post.getContent());
+    }
+
+    public void removePost(String postId) {
+        index.remove(postId);
+    }
+
+    /**
+     * Search posts
+     *
+     * @param query Search terms; the last one also matches words it is a prefix of
+     * @param page Page number (0-based)
+     * @param size Page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return Matching posts by relevance with their scores, and the total number of matches
+     * @throws IllegalArgumentException If the page number is negative
+     */
+    public Map<String, Object> search(String query, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Pages past the end of any possible result are empty; capping keeps offset + size in range
+        long offset = Math.min((long) page * pageSize, Integer.MAX_VALUE - pageSize);
+        InvertedIndex.SearchResult result = index.search(query, (int) offset, pageSize);
+
+        List<String> ids = result.getHits().stream()
+            .map(InvertedIndex.Hit::getDocumentId)
+            .collect(Collectors.toList());
+        Map<String, Post> posts = new HashMap<>();
+        postRepository.findAllById(ids).forEach(post -> posts.put(post.getId(), post));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (InvertedIndex.Hit hit : result.getHits()) {
+            Post post = posts.get(hit.getDocumentId());
+            if (post == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("post", post);
+            entry.put("score", hit.getScore());
+            results.add(entry);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", query);
+        response.put("results", results);
+        response.put("page", page);
+        response.put("size", pageSize);
+        response.put("total", result.getTotal());
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package com.university.skillshare_backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.util.PageCursor;
+
+@Service
+public class PostService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Documents fetched per round trip while streaming
+    private static final int STREAM_BATCH_SIZE = 256;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PostService(MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get one page of posts, newest first
+     *
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return The page and the cursor of the next one
+     */
+    public CursorPage<Post> getPostsPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Fetch one extra document to know whether another page exists
+        Query query = newestFirstQuery(PageCursor.decode(cursor)).limit(pageSize + 1);
+        List<Post> posts = new ArrayList<>(mongoTemplate.find(query, Post.class));
+
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = new ArrayList<>(posts.subList(0, pageSize));
+            Post last = posts.get(pageSize - 1);
+            nextCursor = PageCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(posts, nextCursor);
+    }
+
+    /**
+     * Write posts, newest first, as newline-delimited JSON while they are read
+     * from the Mongo cursor, so memory use does not grow with the number of posts
+     *
+     * @param cursor Cursor to start after, or null to start from the newest post
+     * @param limit Maximum number of posts, or null for no limit
+     * @param out Response stream
+     */
+    public void streamPosts(String cursor, Integer limit, OutputStream out) throws IOException {
+        Query query = newestFirstQuery(PageCursor.decode(cursor)).cursorBatchSize(STREAM_BATCH_SIZE);
+        if (limit != null) {
+            query.limit(Math.max(1, limit));
+        }
+
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            int written = 0;
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                out.write(objectMapper.writeValueAsBytes(post));
+                out.write('\n');
+                // Push each batch to the client as soon as it has been read
+                if (++written % STREAM_BATCH_SIZE == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Keyset query on the (createdAt desc, _id desc) index
+     */
+    private Query newestFirstQuery(PageCursor cursor) {
+        Query query = new Query();
+        if (cursor != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cursor.getDate()),
+                Criteria.where("createdAt").is(cursor.getDate()).and("id").lt(cursor.getId())
+            ));
+        }
+        return query.with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+    }
+}
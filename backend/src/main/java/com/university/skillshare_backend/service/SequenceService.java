@@ -0,0 +1,58 @@
+package com.university.skillshare_backend.service;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Sequence;
+
+/**
+ * Per-key counters. Each number is allocated with one atomic findAndModify $inc,
+ * so concurrent callers never get the same number and nothing has to be counted.
+ */
+@Service
+public class SequenceService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public SequenceService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Allocate the next number of a sequence
+     *
+     * @param key The sequence, e.g. "comments:{postId}"
+     * @param initial Last number already in use, called once when the sequence is
+     * first used (e.g. to continue after data that predates it)
+     * @return The allocated number
+     */
+    public long next(String key, LongSupplier initial) {
+        Sequence sequence = increment(key);
+        if (sequence == null) {
+            try {
+                mongoTemplate.insert(new Sequence(key, initial.getAsLong()));
+            } catch (DuplicateKeyException e) {
+                // Another caller started the sequence first
+            }
+            sequence = increment(key);
+        }
+        return sequence.getValue();
+    }
+
+    private Sequence increment(String key) {
+        return mongoTemplate.findAndModify(
+            Query.query(Criteria.where("id").is(key)),
+            new Update().inc("value", 1),
+            FindAndModifyOptions.options().returnNew(true),
+            Sequence.class);
+    }
+}
@@ -5,6 +5,7 @@ import com.university.skillshare_backend.repository.SessionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.Calendar;
 
@@ -78,6 +79,22 @@ public class SessionService {
             .orElse(false);
     }
     
+    /**
+     * User of an active, unexpired session
+     * 
+     * @param token Session token, optionally prefixed with "Bearer "
+     * @return The user ID, or empty if the token is not a valid session
+     */
+    public Optional<String> getSessionUserId(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String rawToken = token.startsWith("Bearer ") ? token.substring("Bearer ".length()).trim() : token.trim();
+        return sessionRepository.findByTokenAndIsActiveTrue(rawToken)
+            .filter(session -> new Date().before(session.getExpiresAt()))
+            .map(Session::getUserId);
+    }
+    
     public void invalidateSession(String token) {
         sessionRepository.findByToken(token)
             .ifPresent(session -> {
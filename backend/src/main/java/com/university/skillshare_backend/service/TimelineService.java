@@ -0,0 +1,489 @@
+package com.university.skillshare_backend.service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.dto.CursorPage;
+import com.university.skillshare_backend.exception.ResourceNotFoundException;
+import com.university.skillshare_backend.model.Follow;
+import com.university.skillshare_backend.model.HighFanoutAuthor;
+import com.university.skillshare_backend.model.Post;
+import com.university.skillshare_backend.model.Timeline;
+import com.university.skillshare_backend.repository.FollowRepository;
+import com.university.skillshare_backend.repository.PostRepository;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.util.PageCursor;
+
+/**
+ * Home timelines ("posts from people I follow").
+ *
+ * Posts of normal authors are pushed into a bounded timeline document of every
+ * follower when they are created (fan-out on write). Authors with a very large
+ * audience are not fanned out; their recent posts are merged into the feed when
+ * it is read (fan-out on read). Which authors those are is kept in
+ * high_fanout_authors, shared by all instances: writes check it directly, feed reads
+ * use a copy refreshed every high-fanout-refresh-ms. An author who drops back below
+ * the threshold has their recent posts pushed into their followers' timelines, since
+ * the posts they wrote meanwhile were never fanned out.
+ *
+ * Timelines of users who followed people before timelines existed are backfilled
+ * from their follows the first time their feed is read, or all at once by
+ * {@link #backfillTimelines}.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    // Upserts sent to Mongo per bulk write when fanning out
+    private static final int FAN_OUT_CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    @Value("${timeline.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${timeline.high-fanout-threshold:5000}")
+    private long highFanoutThreshold;
+
+    // Copy of high_fanout_authors for feed reads
+    private final Set<String> highFanoutAuthors = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TimelineService(
+            MongoTemplate mongoTemplate,
+            FollowRepository followRepository,
+            PostRepository postRepository,
+            UserRepository userRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Mark the authors at or above the fan-out threshold that are not marked yet, then
+     * load all marked authors. Authors are only unmarked by {@link #onUnfollow}, once
+     * their audience has halved, so they do not flap around the threshold.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHighFanoutAuthors() {
+        try {
+            Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("followedId").count().as("followers"),
+                Aggregation.match(Criteria.where("followers").gte(highFanoutThreshold))
+            );
+            mongoTemplate.aggregate(aggregation, Follow.class, Document.class)
+                .forEach(result -> markHighFanout(result.getString("_id")));
+        } catch (Exception e) {
+            logger.error("Error classifying high fan-out authors: {}", e.getMessage());
+        }
+        refreshHighFanoutAuthors();
+        logger.info("Loaded {} high fan-out authors", highFanoutAuthors.size());
+    }
+
+    /**
+     * Pick up authors marked or unmarked by other instances
+     */
+    @Scheduled(fixedDelayString = "${timeline.high-fanout-refresh-ms:60000}",
+        initialDelayString = "${timeline.high-fanout-refresh-ms:60000}")
+    public void refreshHighFanoutAuthors() {
+        try {
+            Query query = new Query();
+            query.fields().include("_id");
+            Set<String> authorIds = new HashSet<>();
+            mongoTemplate.find(query, HighFanoutAuthor.class)
+                .forEach(author -> authorIds.add(author.getAuthorId()));
+            highFanoutAuthors.retainAll(authorIds);
+            highFanoutAuthors.addAll(authorIds);
+        } catch (Exception e) {
+            logger.error("Error loading high fan-out authors: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get a page of the home feed of a user, newest first
+     *
+     * @param userId The user ID
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit Page size
+     * @return Page of posts from the users they follow
+     */
+    public CursorPage<Post> getFeed(String userId, String cursor, int limit) {
+        userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        int pageSize = Math.max(1, Math.min(limit, PostService.MAX_PAGE_SIZE));
+        PageCursor pageCursor = PageCursor.decode(cursor);
+
+        Timeline timeline = readTimeline(userId, pageCursor, pageSize + 1);
+        if (timeline == null || !timeline.isBackfilled()) {
+            rebuildTimeline(userId);
+            timeline = readTimeline(userId, pageCursor, pageSize + 1);
+        }
+        List<Timeline.Entry> timelineEntries = timeline != null && timeline.getEntries() != null
+            ? timeline.getEntries() : List.of();
+
+        // Candidates from both sources; each is limited to pageSize + 1 after the cursor
+        Map<String, Timeline.Entry> candidates = new LinkedHashMap<>();
+        for (Timeline.Entry entry : timelineEntries) {
+            candidates.put(entry.getPostId(), entry);
+        }
+        Map<String, Post> mergedPosts = readHighFanoutPosts(userId, pageCursor, pageSize + 1);
+        mergedPosts.values().forEach(post -> candidates.putIfAbsent(post.getId(),
+            new Timeline.Entry(post.getId(), post.getUserId(), toDate(post))));
+
+        List<Timeline.Entry> ordered = candidates.values().stream()
+            .sorted(Comparator.comparing(Timeline.Entry::getCreatedAt)
+                .thenComparing(Timeline.Entry::getPostId)
+                .reversed())
+            .collect(Collectors.toList());
+
+        boolean hasMore = ordered.size() > pageSize;
+        List<Timeline.Entry> page = hasMore ? ordered.subList(0, pageSize) : ordered;
+
+        // Hydrate the fanned-out entries with one query
+        List<String> missing = page.stream()
+            .map(Timeline.Entry::getPostId)
+            .filter(postId -> !mergedPosts.containsKey(postId))
+            .collect(Collectors.toList());
+        Map<String, Post> posts = new LinkedHashMap<>(mergedPosts);
+        postRepository.findAllById(missing).forEach(post -> posts.put(post.getId(), post));
+
+        List<Post> items = new ArrayList<>(page.size());
+        for (Timeline.Entry entry : page) {
+            Post post = posts.get(entry.getPostId());
+            // Skip posts deleted after the entry was read
+            if (post != null) {
+                items.add(post);
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Timeline.Entry last = page.get(page.size() - 1);
+            nextCursor = PageCursor.of(last.getCreatedAt(), last.getPostId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Push a new post into the timelines of the author's followers
+     */
+    public void onPostCreated(Post post) {
+        String authorId = post.getUserId();
+        try {
+            if (isHighFanout(authorId)) {
+                return; // Merged into followers' feeds when they are read
+            }
+
+            Timeline.Entry entry = new Timeline.Entry(post.getId(), authorId, toDate(post));
+            List<Follow> followers = followRepository.findByFollowedId(authorId);
+            for (int start = 0; start < followers.size(); start += FAN_OUT_CHUNK_SIZE) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Timeline.class);
+                for (Follow follow : followers.subList(start, Math.min(start + FAN_OUT_CHUNK_SIZE, followers.size()))) {
+                    ops.upsert(timelineOf(follow.getFollowerId()), pushEntries(List.of(entry)));
+                }
+                ops.execute();
+            }
+        } catch (Exception e) {
+            // The post is saved either way; it is only missing from some feeds
+            logger.error("Error fanning out post {}: {}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Remove a deleted post from every timeline holding it
+     */
+    public void onPostDeleted(Post post) {
+        try {
+            mongoTemplate.updateMulti(
+                Query.query(Criteria.where("entries.postId").is(post.getId())),
+                new Update().pull("entries", new Document("postId", post.getId())),
+                Timeline.class
+            );
+        } catch (Exception e) {
+            // Feed reads skip entries whose post no longer exists
+            logger.error("Error removing post {} from timelines: {}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Backfill the follower's timeline with the recent posts of the followed user
+     */
+    public void onFollow(String followerId, String followedId) {
+        try {
+            long followers = followRepository.countByFollowedId(followedId);
+            if (followers >= highFanoutThreshold) {
+                markHighFanout(followedId);
+                return;
+            }
+            if (isHighFanout(followedId)) {
+                return;
+            }
+
+            List<Timeline.Entry> entries = recentEntries(List.of(followedId));
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Timeline.class);
+            replaceEntries(ops, followerId, followedId, entries);
+            ops.execute();
+        } catch (Exception e) {
+            // The follow is saved either way; the posts show up once the timeline is rebuilt
+            logger.error("Error backfilling timeline of {} with {}: {}", followerId, followedId, e.getMessage());
+        }
+    }
+
+    /**
+     * Fill a user's timeline with the recent posts of everyone they follow, keeping
+     * the entries it already has. Idempotent.
+     *
+     * @return Number of entries pushed
+     */
+    public int rebuildTimeline(String userId) {
+        List<String> authorIds = followRepository.findByFollowerId(userId).stream()
+            .map(Follow::getFollowedId)
+            .filter(authorId -> !highFanoutAuthors.contains(authorId))
+            .collect(Collectors.toList());
+        List<Timeline.Entry> entries = authorIds.isEmpty() ? List.of() : recentEntries(authorIds);
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Timeline.class);
+        if (entries.isEmpty()) {
+            ops.upsert(timelineOf(userId), new Update().set("backfilled", true));
+        } else {
+            // Entries already pushed by fan-out are replaced, not duplicated
+            List<String> postIds = entries.stream().map(Timeline.Entry::getPostId).collect(Collectors.toList());
+            ops.updateOne(timelineOf(userId),
+                new Update().pull("entries", new Document("postId", new Document("$in", postIds))));
+            ops.upsert(timelineOf(userId), pushEntries(entries).set("backfilled", true));
+        }
+        ops.execute();
+        return entries.size();
+    }
+
+    /**
+     * Backfill the timeline of every user who follows someone and has not been
+     * backfilled yet, e.g. once after timelines are introduced
+     *
+     * @return Number of timelines checked, backfilled and failed
+     */
+    public Map<String, Object> backfillTimelines() {
+        long checked = 0;
+        long backfilled = 0;
+        long failed = 0;
+        Aggregation followers = Aggregation.newAggregation(Aggregation.group("followerId"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(1000).build());
+        try (Stream<Document> followerIds = mongoTemplate.aggregateStream(followers, Follow.class, Document.class)) {
+            for (Document row : (Iterable<Document>) followerIds::iterator) {
+                String userId = row.getString("_id");
+                checked++;
+                if (userId == null || mongoTemplate.exists(
+                        Query.query(Criteria.where("_id").is(userId).and("backfilled").is(true)), Timeline.class)) {
+                    continue;
+                }
+                try {
+                    rebuildTimeline(userId);
+                    backfilled++;
+                } catch (Exception e) {
+                    failed++;
+                    logger.error("Error backfilling timeline of {}: {}", userId, e.getMessage());
+                }
+            }
+        }
+        logger.info("Timeline backfill: {} followers checked, {} backfilled, {} failed", checked, backfilled, failed);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("checked", checked);
+        stats.put("backfilled", backfilled);
+        stats.put("failed", failed);
+        return stats;
+    }
+
+    /**
+     * Remove the unfollowed user's posts from the follower's timeline
+     */
+    public void onUnfollow(String followerId, String followedId) {
+        mongoTemplate.updateFirst(
+            timelineOf(followerId),
+            new Update().pull("entries", new Document("authorId", followedId)),
+            Timeline.class
+        );
+
+        // Stay high fan-out until the audience halves, so authors near the threshold do not flap
+        try {
+            if (isHighFanout(followedId)
+                    && followRepository.countByFollowedId(followedId) < highFanoutThreshold / 2) {
+                unmarkHighFanout(followedId);
+            }
+        } catch (Exception e) {
+            logger.error("Error reclassifying author {}: {}", followedId, e.getMessage());
+        }
+    }
+
+    private boolean isHighFanout(String authorId) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(authorId)), HighFanoutAuthor.class);
+    }
+
+    private void markHighFanout(String authorId) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(authorId)),
+            new Update().setOnInsert("since", new Date()), HighFanoutAuthor.class);
+        highFanoutAuthors.add(authorId);
+    }
+
+    /**
+     * Fan the author's posts out again from now on, and push their recent posts into
+     * their followers' timelines: those written while they were high fan-out were
+     * only merged on read, and would otherwise disappear from the feeds
+     */
+    private void unmarkHighFanout(String authorId) {
+        if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(authorId)), HighFanoutAuthor.class)
+                .getDeletedCount() == 0) {
+            return; // Unmarked concurrently, which backfills
+        }
+        highFanoutAuthors.remove(authorId);
+
+        List<Timeline.Entry> entries = recentEntries(List.of(authorId));
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Follow> followers = followRepository.findByFollowedId(authorId);
+        // Two operations per follower
+        for (int start = 0; start < followers.size(); start += FAN_OUT_CHUNK_SIZE / 2) {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Timeline.class);
+            for (Follow follow : followers.subList(start, Math.min(start + FAN_OUT_CHUNK_SIZE / 2, followers.size()))) {
+                replaceEntries(ops, follow.getFollowerId(), authorId, entries);
+            }
+            ops.execute();
+        }
+        logger.info("Author {} is no longer high fan-out; backfilled {} timelines", authorId, followers.size());
+    }
+
+    /**
+     * Replace an author's entries in a user's timeline, so none are duplicated
+     */
+    private void replaceEntries(BulkOperations ops, String userId, String authorId, List<Timeline.Entry> entries) {
+        ops.updateOne(timelineOf(userId), new Update().pull("entries", new Document("authorId", authorId)));
+        if (!entries.isEmpty()) {
+            ops.upsert(timelineOf(userId), pushEntries(entries));
+        }
+    }
+
+    /**
+     * Newest posts of the given authors, as timeline entries
+     */
+    private List<Timeline.Entry> recentEntries(List<String> authorIds) {
+        Query recentPosts = Query.query(Criteria.where("userId").in(authorIds))
+            .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+            .limit(maxEntries);
+        recentPosts.fields().include("id", "userId", "createdAt");
+        return mongoTemplate.find(recentPosts, Post.class).stream()
+            .map(post -> new Timeline.Entry(post.getId(), post.getUserId(), toDate(post)))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Read up to limit timeline entries after the cursor. The entries array is kept
+     * sorted, so the server filters and slices it and only the page is returned.
+     *
+     * @return The timeline with just those entries, or null if the user has none
+     */
+    private Timeline readTimeline(String userId, PageCursor cursor, int limit) {
+        Object entries = "$entries";
+        if (cursor != null) {
+            Document afterCursor = new Document("$or", List.of(
+                new Document("$lt", List.of("$$e.createdAt", cursor.getDate())),
+                new Document("$and", List.of(
+                    new Document("$eq", List.of("$$e.createdAt", cursor.getDate())),
+                    new Document("$lt", List.of("$$e.postId", cursor.getId()))
+                ))
+            ));
+            entries = new Document("$filter", new Document("input", "$entries")
+                .append("as", "e")
+                .append("cond", afterCursor));
+        }
+        Document slice = new Document("$slice", List.of(entries, limit));
+        AggregationOperation project = context -> new Document("$project",
+            new Document("entries", slice).append("backfilled", 1));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("_id").is(userId)),
+            project
+        );
+        return mongoTemplate.aggregate(aggregation, Timeline.class, Timeline.class).getUniqueMappedResult();
+    }
+
+    /**
+     * Read up to limit posts after the cursor from the high fan-out authors the user follows
+     */
+    private Map<String, Post> readHighFanoutPosts(String userId, PageCursor cursor, int limit) {
+        if (highFanoutAuthors.isEmpty()) {
+            return Map.of();
+        }
+        List<String> authorIds = followRepository.findByFollowerIdAndFollowedIdIn(userId, highFanoutAuthors)
+            .stream()
+            .map(Follow::getFollowedId)
+            .collect(Collectors.toList());
+        if (authorIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = Query.query(Criteria.where("userId").in(authorIds));
+        if (cursor != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cursor.getDate()),
+                Criteria.where("createdAt").is(cursor.getDate()).and("id").lt(cursor.getId())
+            ));
+        }
+        query.with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))).limit(limit);
+        return mongoTemplate.find(query, Post.class).stream()
+            .collect(Collectors.toMap(Post::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private Query timelineOf(String userId) {
+        return Query.query(Criteria.where("_id").is(userId));
+    }
+
+    /**
+     * Push entries keeping the array sorted newest first and capped at maxEntries
+     */
+    private Update pushEntries(List<Timeline.Entry> entries) {
+        return new Update().push("entries")
+            .sort(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("postId")))
+            .slice(maxEntries)
+            .each(entries.toArray());
+    }
+
+    private static Date toDate(Post post) {
+        return Date.from(post.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
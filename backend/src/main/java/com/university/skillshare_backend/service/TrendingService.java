@@ -0,0 +1,135 @@
+package com.university.skillshare_backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.model.Comment;
+import com.university.skillshare_backend.model.Like;
+import com.university.skillshare_backend.util.DecayingTopK;
+
+/**
+ * Trending posts, scored from views, likes and comments with older events counting
+ * exponentially less. Scores live in memory and are updated as events happen, so
+ * reading the trending list never touches the database.
+ */
+@Service
+public class TrendingService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // How much one event of each kind adds to a post's score
+    private static final double VIEW_WEIGHT = 1;
+    private static final double LIKE_WEIGHT = 5;
+    private static final double COMMENT_WEIGHT = 10;
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final DecayingTopK scores;
+    private final long halfLifeMillis;
+
+    @Autowired
+    public TrendingService(
+            MongoTemplate mongoTemplate,
+            @Value("${trending.half-life-hours:6}") long halfLifeHours,
+            @Value("${trending.max-tracked-posts:10000}") int maxTrackedPosts) {
+        this.mongoTemplate = mongoTemplate;
+        this.halfLifeMillis = TimeUnit.HOURS.toMillis(halfLifeHours);
+        this.scores = new DecayingTopK(maxTrackedPosts, halfLifeMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Replay the likes and comments of the last few half-lives, so the list is
+     * meaningful right after a restart. Views are not stored individually, so they
+     * only count from startup on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecentEvents() {
+        Date since = new Date(System.currentTimeMillis() - 4 * halfLifeMillis);
+        try {
+            Query likes = Query.query(Criteria.where("createdAt").gte(since)).cursorBatchSize(1000);
+            likes.fields().include("postId", "createdAt");
+            try (Stream<Like> stream = mongoTemplate.stream(likes, Like.class)) {
+                stream.forEach(like -> scores.add(like.getPostId(), LIKE_WEIGHT, like.getCreatedAt().getTime()));
+            }
+
+            LocalDateTime commentsSince = LocalDateTime.ofInstant(since.toInstant(), ZoneId.systemDefault());
+            Query comments = Query.query(Criteria.where("createdAt").gte(commentsSince)).cursorBatchSize(1000);
+            comments.fields().include("postId", "createdAt");
+            try (Stream<Comment> stream = mongoTemplate.stream(comments, Comment.class)) {
+                stream.forEach(comment -> scores.add(comment.getPostId(), COMMENT_WEIGHT,
+                    comment.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+            }
+            logger.info("Loaded trending scores for {} posts", scores.size());
+        } catch (Exception e) {
+            logger.error("Error loading trending scores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param count Views since the last flush of the view counters
+     */
+    public void recordViews(String postId, long count) {
+        if (count != 0) {
+            scores.add(postId, count * VIEW_WEIGHT);
+        }
+    }
+
+    /**
+     * @param delta Change in the like count; negative when likes were removed
+     */
+    public void recordLikes(String postId, int delta) {
+        if (delta != 0) {
+            scores.add(postId, delta * LIKE_WEIGHT);
+        }
+    }
+
+    /**
+     * @param delta Change in the comment count; negative when comments were removed
+     */
+    public void recordComments(String postId, int delta) {
+        if (delta != 0) {
+            scores.add(postId, delta * COMMENT_WEIGHT);
+        }
+    }
+
+    public void removePost(String postId) {
+        scores.remove(postId);
+    }
+
+    /**
+     * Get the highest-scoring posts
+     *
+     * @param limit Number of posts, clamped to [1, MAX_LIMIT]
+     * @return Post IDs and scores, highest first
+     */
+    public List<Map<String, Object>> getTrending(int limit) {
+        return scores.top(Math.max(1, Math.min(limit, MAX_LIMIT))).stream()
+            .map(scored -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("postId", scored.getKey());
+                entry.put("score", scored.getScore());
+                return entry;
+            })
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,205 @@
+package com.university.skillshare_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.university.skillshare_backend.dto.UserSummary;
+import com.university.skillshare_backend.model.User;
+import com.university.skillshare_backend.repository.UserRepository;
+import com.university.skillshare_backend.util.PrefixIndex;
+
+/**
+ * In-memory directory of users, so mentions resolve and the mention box autocompletes
+ * without a query.
+ *
+ * Loaded at startup and kept current by registration and profile changes on this
+ * instance, and reloaded every resync-interval-ms so autocomplete picks up changes
+ * made on other instances; a load that fails is retried on the next check. Usernames it does not know (e.g. users registered on another instance)
+ * are looked up with one $in query for all of them and added. Known usernames that
+ * have not been checked within verify-ttl-ms are looked up in the same query, so a
+ * username changed on another instance stops resolving to its old user.
+ */
+@Service
+public class UserDirectoryService {
+
+    public static final int DEFAULT_SEARCH_LIMIT = 10;
+    public static final int MAX_SEARCH_LIMIT = 50;
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final long verifyTtlMs;
+    private final long resyncIntervalMs;
+    // When the directory was last loaded in full, 0 until the first load succeeds
+    private volatile long loadedAt;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final Map<String, String> idsByUsername = new ConcurrentHashMap<>();
+    // Current username of each user, to drop the old entry when it changes
+    private final Map<String, String> usernamesById = new ConcurrentHashMap<>();
+    private final Map<String, UserSummary> summariesById = new ConcurrentHashMap<>();
+    // When each username's user was last read from the database
+    private final Map<String, Long> verifiedAtByUsername = new ConcurrentHashMap<>();
+    // Autocomplete: usernames, and full names with each of their words
+    private final PrefixIndex usernameIndex = new PrefixIndex();
+    private final PrefixIndex nameIndex = new PrefixIndex();
+
+    @Autowired
+    public UserDirectoryService(
+            MongoTemplate mongoTemplate,
+            UserRepository userRepository,
+            @Value("${user-directory.verify-ttl-ms:60000}") long verifyTtlMs,
+            @Value("${user-directory.resync-interval-ms:300000}") long resyncIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.verifyTtlMs = verifyTtlMs;
+        this.resyncIntervalMs = resyncIntervalMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDirectory() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            Query query = new Query().cursorBatchSize(1000);
+            query.fields().include("username", "fullName", "profileImage");
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                users.forEach(this::put);
+            }
+            // Usernames not read (or written) since the load started no longer exist
+            for (String username : new ArrayList<>(idsByUsername.keySet())) {
+                if (verifiedAtByUsername.getOrDefault(username, 0L) < startedAt) {
+                    forget(username);
+                }
+            }
+            loadedAt = startedAt;
+            logger.info("Loaded {} usernames into the user directory", idsByUsername.size());
+        } catch (Exception e) {
+            logger.error("Error loading user directory, retrying at the next check: {}", e.getMessage());
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * Reload the directory when it is due, or when the last load failed
+     */
+    @Scheduled(
+        fixedDelayString = "${user-directory.resync-check-ms:10000}",
+        initialDelayString = "${user-directory.resync-check-ms:10000}")
+    public void resync() {
+        if (System.currentTimeMillis() - loadedAt >= resyncIntervalMs) {
+            loadDirectory();
+        }
+    }
+
+    /**
+     * Add a user, or update them after a change to their username or profile
+     */
+    public synchronized void put(User user) {
+        if (user.getId() == null || user.getUsername() == null) {
+            return;
+        }
+        String previous = usernamesById.put(user.getId(), user.getUsername());
+        if (previous != null && !previous.equals(user.getUsername())) {
+            if (idsByUsername.remove(previous, user.getId())) {
+                verifiedAtByUsername.remove(previous);
+            }
+        }
+        idsByUsername.put(user.getUsername(), user.getId());
+        verifiedAtByUsername.put(user.getUsername(), System.currentTimeMillis());
+        summariesById.put(user.getId(), UserSummary.from(user));
+        usernameIndex.put(user.getId(), List.of(user.getUsername()));
+        nameIndex.put(user.getId(), PrefixIndex.termsOf(user.getFullName()));
+    }
+
+    /**
+     * Drop a username that no longer exists in the database, and its user if that is
+     * still their current username
+     */
+    private synchronized void forget(String username) {
+        String userId = idsByUsername.remove(username);
+        verifiedAtByUsername.remove(username);
+        if (userId != null && usernamesById.remove(userId, username)) {
+            summariesById.remove(userId);
+            usernameIndex.remove(userId);
+            nameIndex.remove(userId);
+        }
+    }
+
+    /**
+     * Autocomplete users by username or name prefix, ignoring case and accents.
+     * Username matches come first, then name matches, each in alphabetical order.
+     *
+     * @param query What has been typed so far
+     * @param limit Maximum number of users, clamped to [1, MAX_SEARCH_LIMIT]
+     */
+    public List<UserSummary> search(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<String> ids = new ArrayList<>(usernameIndex.search(query, max, Set.of()));
+        if (ids.size() < max) {
+            ids.addAll(nameIndex.search(query, max - ids.size(), new HashSet<>(ids)));
+        }
+        List<UserSummary> users = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            UserSummary summary = summariesById.get(id);
+            if (summary != null) {
+                users.add(summary);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Resolve usernames to user IDs
+     *
+     * @param usernames Usernames, duplicates allowed
+     * @return Username to user ID, for the usernames that exist
+     */
+    public Map<String, String> resolve(Collection<String> usernames) {
+        Map<String, String> resolved = new HashMap<>();
+        Set<String> unverified = new LinkedHashSet<>();
+        long verifiedAfter = System.currentTimeMillis() - verifyTtlMs;
+        for (String username : usernames) {
+            String userId = idsByUsername.get(username);
+            if (userId != null && verifiedAtByUsername.getOrDefault(username, 0L) > verifiedAfter) {
+                resolved.put(username, userId);
+            } else {
+                unverified.add(username);
+            }
+        }
+        if (!unverified.isEmpty()) {
+            for (User user : userRepository.findByUsernameIn(unverified)) {
+                put(user);
+                resolved.put(user.getUsername(), user.getId());
+                unverified.remove(user.getUsername());
+            }
+            // Known here but not in the database: renamed or deleted elsewhere
+            unverified.forEach(this::forget);
+        }
+        return resolved;
+    }
+}
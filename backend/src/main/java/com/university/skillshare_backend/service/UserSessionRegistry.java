@@ -0,0 +1,66 @@
+package com.university.skillshare_backend.service;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Open STOMP sessions of each signed-in user, one per browser tab or device.
+ *
+ * Kept from the broker's connect and disconnect events. Services check
+ * {@link #isConnected} before building a push, so users with no open session cost
+ * nothing; the broker delivers a push to each session of the user.
+ */
+@Service
+public class UserSessionRegistry {
+
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user != null && sessionId != null) {
+            sessionsByUser.compute(user.getName(), (id, sessions) -> {
+                Set<String> updated = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+                updated.add(sessionId);
+                return updated;
+            });
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            // Drop the user's entry with their last session, atomically with a concurrent connect
+            sessionsByUser.computeIfPresent(user.getName(), (id, sessions) -> {
+                sessions.remove(event.getSessionId());
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    public boolean isConnected(String userId) {
+        return userId != null && sessionsByUser.containsKey(userId);
+    }
+
+    public Set<String> getSessionIds(String userId) {
+        Set<String> sessions = sessionsByUser.get(userId);
+        return sessions == null ? Set.of() : Set.copyOf(sessions);
+    }
+
+    public int getConnectedUserCount() {
+        return sessionsByUser.size();
+    }
+
+    public int getSessionCount() {
+        return sessionsByUser.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.university.skillshare_backend.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.university.skillshare_backend.dto.UserSummary;
+import com.university.skillshare_backend.model.User;
+
+/**
+ * Loads the UserSummary of many users at once, for responses that list users or
+ * show who wrote something.
+ *
+ * Callers pass all the user IDs a response needs; those not loaded yet in the
+ * current request are fetched with one query projected to the summary fields, so the
+ * number of user queries does not grow with the number of rows. Summaries are kept
+ * for the rest of the request, so a user needed again is not queried twice.
+ */
+@Component
+@RequestScope
+public class UserSummaryLoader {
+
+    private final MongoTemplate mongoTemplate;
+    // Summaries loaded during this request; null for IDs with no user
+    private final Map<String, UserSummary> loaded = new HashMap<>();
+
+    @Autowired
+    public UserSummaryLoader(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @return User ID to summary; IDs with no user are left out
+     */
+    public Map<String, UserSummary> loadAll(Collection<String> userIds) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId != null && !loaded.containsKey(userId)) {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Query query = Query.query(Criteria.where("id").in(missing));
+            query.fields().include("username", "fullName", "profileImage");
+            for (User user : mongoTemplate.find(query, User.class)) {
+                loaded.put(user.getId(), UserSummary.from(user));
+            }
+            missing.forEach(userId -> loaded.putIfAbsent(userId, null));
+        }
+
+        Map<String, UserSummary> result = new HashMap<>();
+        for (String userId : userIds) {
+            UserSummary summary = userId == null ? null : loaded.get(userId);
+            if (summary != null) {
+                result.put(userId, summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Summaries in the order of the given IDs, skipping IDs with no user
+     */
+    public List<UserSummary> loadList(List<String> userIds) {
+        Map<String, UserSummary> summaries = loadAll(userIds);
+        return userIds.stream()
+            .map(summaries::get)
+            .filter(summary -> summary != null)
+            .collect(Collectors.toList());
+    }
+}
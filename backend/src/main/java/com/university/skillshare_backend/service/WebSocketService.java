@@ -41,6 +41,23 @@ public class WebSocketService {
         messagingTemplate.convertAndSend("/topic/comments/" + postId, comment);
     }
     
+    /**
+     * Broadcast a new reply to all clients subscribed to the post's replies
+     * 
+     * @param postId The post ID
+     * @param parentId The comment replied to
+     * @param parentReplyCount The parent's reply count including the new reply
+     * @param reply The new reply
+     */
+    public void broadcastNewReply(String postId, String parentId, long parentReplyCount, Object reply) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("parentId", parentId);
+        payload.put("replyCount", parentReplyCount);
+        payload.put("reply", reply);
+        
+        messagingTemplate.convertAndSend("/topic/comments/" + postId + "/replies", payload);
+    }
+    
     /**
      * Broadcast comment update to all clients subscribed to the post
      * 
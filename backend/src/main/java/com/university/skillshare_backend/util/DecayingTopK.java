@@ -0,0 +1,156 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Keys ranked by an exponentially time-decayed sum of weights.
+ *
+ * Uses forward decay: an event at time t adds weight * e^(lambda * (t - landmark)), so
+ * stored scores never have to be decayed as time passes and their order only changes
+ * when an event arrives. Scores are kept in a sorted set, making an update O(log n)
+ * and reading the top k O(k). When the exponent grows large, the landmark is moved
+ * forward and every score rescaled by the same factor, which keeps the order.
+ *
+ * At most maxTracked keys are kept; adding a new one beyond that drops the lowest.
+ */
+public class DecayingTopK {
+
+    // Rescale before e^(lambda * (t - landmark)) gets anywhere near overflowing a double
+    private static final double MAX_EXPONENT = 50;
+    // Keys whose current score falls below this are dropped when rescaling
+    private static final double MIN_SCORE = 1e-3;
+
+    private final int maxTracked;
+    private final double lambdaPerMilli;
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(
+        Comparator.comparingDouble((Entry e) -> e.score).reversed().thenComparing(e -> e.key));
+    private long landmark;
+
+    /**
+     * @param maxTracked Maximum number of keys kept
+     * @param halfLifeMillis Time after which an event counts half as much
+     * @param clock Current time in milliseconds
+     */
+    public DecayingTopK(int maxTracked, long halfLifeMillis, LongSupplier clock) {
+        this.maxTracked = maxTracked;
+        this.lambdaPerMilli = Math.log(2) / halfLifeMillis;
+        this.clock = clock;
+        this.landmark = clock.getAsLong();
+    }
+
+    /**
+     * Record an event that happened now
+     */
+    public synchronized void add(String key, double weight) {
+        add(key, weight, clock.getAsLong());
+    }
+
+    /**
+     * Record an event that happened at the given time, e.g. when replaying history.
+     * Negative weights retract earlier events; scores do not go below zero.
+     */
+    public synchronized void add(String key, double weight, long timestampMillis) {
+        long now = clock.getAsLong();
+        if (lambdaPerMilli * (now - landmark) > MAX_EXPONENT) {
+            rescale(now);
+        }
+        double increment = weight * Math.exp(lambdaPerMilli * (Math.min(timestampMillis, now) - landmark));
+
+        Entry existing = entries.get(key);
+        double score = Math.max(0, (existing == null ? 0 : existing.score) + increment);
+        if (existing != null) {
+            ranking.remove(existing);
+        } else if (score == 0) {
+            return;
+        }
+        Entry updated = new Entry(key, score);
+        entries.put(key, updated);
+        ranking.add(updated);
+
+        if (entries.size() > maxTracked) {
+            Entry lowest = ranking.pollLast();
+            entries.remove(lowest.key);
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Entry existing = entries.remove(key);
+        if (existing != null) {
+            ranking.remove(existing);
+        }
+    }
+
+    /**
+     * The k highest-scoring keys with their scores decayed to the current time
+     */
+    public synchronized List<Scored> top(int k) {
+        double decay = Math.exp(-lambdaPerMilli * (clock.getAsLong() - landmark));
+        List<Scored> top = new ArrayList<>(Math.min(k, ranking.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            top.add(new Scored(entry.key, entry.score * decay));
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void rescale(long now) {
+        double factor = Math.exp(-lambdaPerMilli * (now - landmark));
+        List<Entry> rescaled = new ArrayList<>(ranking.size());
+        for (Entry entry : ranking) {
+            double score = entry.score * factor;
+            if (score >= MIN_SCORE) {
+                rescaled.add(new Entry(entry.key, score));
+            }
+        }
+        entries.clear();
+        ranking.clear();
+        for (Entry entry : rescaled) {
+            entries.put(entry.key, entry);
+            ranking.add(entry);
+        }
+        landmark = now;
+    }
+
+    private static class Entry {
+        private final String key;
+        private final double score;
+
+        Entry(String key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+    }
+
+    public static class Scored {
+        private final String key;
+        private final double score;
+
+        public Scored(String key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.university.skillshare_backend.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch for counting distinct values in fixed memory.
+ *
+ * Uses 2^12 one-byte registers (4 KB) however many values are added. The standard
+ * error of the estimate is 1.04 / sqrt(4096), about 1.6%, so about 95% of
+ * estimates are within 3.3% of the true count. Small counts use linear counting
+ * and are close to exact. Sketches merge by taking the maximum of each register,
+ * so the union of sketches built on different nodes is exact and merging the same
+ * sketch twice changes nothing.
+ *
+ * add and merge may be called concurrently.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int SIZE_IN_BYTES = 1 << PRECISION;
+
+    private static final int REGISTERS = SIZE_IN_BYTES;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Restore a sketch written by {@link #toBytes()}; null gives an empty sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return new HyperLogLog();
+        }
+        if (bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("Expected " + REGISTERS + " bytes, got " + bytes.length);
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    /**
+     * @return true if the sketch changed (the value is certainly new); false if it
+     * may have been added before
+     */
+    public boolean add(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first 1 bit after the index bits, capped so it fits the register
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        // Most adds do not raise a register; those need no lock
+        if (rank <= registers[index]) {
+            return false;
+        }
+        synchronized (this) {
+            if (rank <= registers[index]) {
+                return false;
+            }
+            registers[index] = rank;
+            return true;
+        }
+    }
+
+    /**
+     * Add every value of another sketch to this one
+     */
+    public synchronized void merge(HyperLogLog other) {
+        byte[] otherRegisters = other.toBytes();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (otherRegisters[i] > registers[i]) {
+                registers[i] = otherRegisters[i];
+            }
+        }
+    }
+
+    /**
+     * Estimated number of distinct values added
+     */
+    public long estimate() {
+        byte[] snapshot = toBytes();
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : snapshot) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized byte[] toBytes() {
+        return registers.clone();
+    }
+
+    @Override
+    public synchronized boolean equals(Object other) {
+        return other instanceof HyperLogLog && Arrays.equals(registers, ((HyperLogLog) other).toBytes());
+    }
+
+    @Override
+    public synchronized int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the MurmurHash3 finalizer, so that similar strings
+     * (e.g. ObjectIds differing in the last characters) spread over all bits
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
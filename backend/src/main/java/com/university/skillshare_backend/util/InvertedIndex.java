@@ -0,0 +1,244 @@
+package com.university.skillshare_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with BM25 ranking and prefix matching on the last query term.
+ *
+ * Terms are kept in a sorted map, so the terms starting with a prefix are one range
+ * of it. A forward index (document to terms) lets documents be updated and removed
+ * without rebuilding anything.
+ */
+public class InvertedIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+        "it", "of", "on", "or", "that", "the", "this", "to", "was", "with"
+    );
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Title terms count this many times towards the term frequency
+    private static final int TITLE_WEIGHT = 3;
+    // Terms reached through prefix expansion score less than an exact match
+    private static final double PREFIX_MATCH_FACTOR = 0.7;
+    // Upper bound on the number of terms a prefix expands to
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<String, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add a document, replacing any earlier version of it
+     */
+    public void index(String documentId, String title, String content) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String term : tokenize(title)) {
+            termFrequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(content)) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+            termFrequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(documentId, frequency));
+            documents.put(documentId, termFrequencies);
+            documentLengths.put(documentId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String documentId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank documents against a query
+     *
+     * @param query Free text; the last term also matches as a prefix unless the query ends with a space
+     * @param offset Number of top hits to skip
+     * @param limit Maximum number of hits to return
+     * @return Hits in rank order and the total number of matching documents
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        boolean prefixLastTerm = query != null && !query.isEmpty()
+            && !Character.isWhitespace(query.charAt(query.length() - 1));
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean isLast = i == terms.size() - 1;
+                if (isLast && prefixLastTerm) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Map<String, Integer>> entry
+                            : postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+                        if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        double factor = entry.getKey().equals(term) ? 1.0 : PREFIX_MATCH_FACTOR;
+                        score(entry.getValue(), factor, scores);
+                    }
+                } else {
+                    Map<String, Integer> termPostings = postings.get(term);
+                    if (termPostings != null) {
+                        score(termPostings, 1.0, scores);
+                    }
+                }
+            }
+            return new SearchResult(top(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercase letter/digit runs without stop words
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private void score(Map<String, Integer> termPostings, double factor, Map<String, Double> scores) {
+        int documentCount = documents.size();
+        double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+        int documentFrequency = termPostings.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+        termPostings.forEach((documentId, frequency) -> {
+            int length = documentLengths.get(documentId);
+            double tf = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+            scores.merge(documentId, factor * idf * tf, Double::sum);
+        });
+    }
+
+    /**
+     * Select hits [offset, offset + limit) by score, newest ID first on ties, with a bounded heap
+     */
+    private static List<Hit> top(Map<String, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        Comparator<Hit> rank = Comparator.comparingDouble(Hit::getScore)
+            .thenComparing(Hit::getDocumentId);
+        PriorityQueue<Hit> heap = new PriorityQueue<>(rank);
+        scores.forEach((documentId, score) -> {
+            heap.add(new Hit(documentId, score));
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        });
+
+        List<Hit> ordered = new ArrayList<>(heap);
+        ordered.sort(rank.reversed());
+        return ordered.subList(Math.min(offset, ordered.size()), ordered.size());
+    }
+
+    private void removeLocked(String documentId) {
+        Map<String, Integer> termFrequencies = documents.remove(documentId);
+        if (termFrequencies == null) {
+            return;
+        }
+        for (String term : termFrequencies.keySet()) {
+            Map<String, Integer> termPostings = postings.get(term);
+            termPostings.remove(documentId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(documentId);
+    }
+
+    public static class Hit {
+        private final String documentId;
+        private final double score;
+
+        public Hit(String documentId, double score) {
+            this.documentId = documentId;
+            this.score = score;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    public static class SearchResult {
+        private final List<Hit> hits;
+        private final int total;
+
+        public SearchResult(List<Hit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
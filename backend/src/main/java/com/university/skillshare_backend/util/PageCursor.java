@@ -0,0 +1,103 @@
+package com.university.skillshare_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset cursor for (timestamp, id) ordered listings.
+ *
+ * The cursor points at the last item of the previous page; the next page
+ * starts strictly after it in the listing order. Listings ordered by a leading
+ * key first (e.g. unread before read) also record the group of that item.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = ":";
+    private static final String GROUP_SEPARATOR = "|";
+
+    private final int group;
+    private final long timestamp;
+    private final String id;
+
+    public PageCursor(long timestamp, String id) {
+        this(0, timestamp, id);
+    }
+
+    public PageCursor(int group, long timestamp, String id) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Cursor id must not be empty");
+        }
+        this.group = group;
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static PageCursor of(Date createdAt, String id) {
+        return new PageCursor(createdAt.getTime(), id);
+    }
+
+    /**
+     * LocalDateTime fields are stored as BSON dates in the system time zone,
+     * so the cursor uses the same conversion as the Mongo converter
+     */
+    public static PageCursor of(LocalDateTime createdAt, String id) {
+        return new PageCursor(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), id);
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode()}
+     *
+     * @param cursor The encoded cursor, may be null or empty for the first page
+     * @return The decoded cursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        String position = raw.substring(0, separator);
+        int groupSeparator = position.indexOf(GROUP_SEPARATOR);
+        try {
+            int group = groupSeparator < 0 ? 0 : Integer.parseInt(position.substring(0, groupSeparator));
+            long timestamp = Long.parseLong(position.substring(groupSeparator + 1));
+            return new PageCursor(group, timestamp, raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        // Cursors without a group keep the original format
+        String raw = (group == 0 ? "" : group + GROUP_SEPARATOR) + timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getGroup() {
+        return group;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Date getDate() {
+        return new Date(timestamp);
+    }
+
+    public String getId() {
+        return id;
+    }
+}
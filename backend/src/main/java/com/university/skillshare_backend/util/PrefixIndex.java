@@ -0,0 +1,119 @@
+package com.university.skillshare_backend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted in-memory index of normalized terms for prefix autocomplete.
+ *
+ * Terms are kept in one sorted map, so the terms starting with a prefix are a
+ * contiguous range found in O(log n); a search only walks that range until it has
+ * enough distinct IDs. Reads take no lock and may run concurrently with updates.
+ */
+public class PrefixIndex {
+
+    // Separates a term from its ID in the map key; sorts before any character of a term
+    private static final char SEPARATOR = '\u0000';
+
+    // term + SEPARATOR + id -> id
+    private final ConcurrentSkipListMap<String, String> entries = new ConcurrentSkipListMap<>();
+    // id -> its keys in entries, to remove or replace them
+    private final Map<String, Set<String>> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Index an ID under the given terms, replacing the terms it had
+     */
+    public synchronized void put(String id, Iterable<String> terms) {
+        remove(id);
+        Set<String> keys = new LinkedHashSet<>();
+        for (String term : terms) {
+            String normalized = normalize(term);
+            if (!normalized.isEmpty()) {
+                String key = normalized + SEPARATOR + id;
+                keys.add(key);
+                entries.put(key, id);
+            }
+        }
+        if (!keys.isEmpty()) {
+            keysById.put(id, keys);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        Set<String> keys = keysById.remove(id);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+        }
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    /**
+     * IDs with a term starting with the prefix, in term order, each once
+     *
+     * @param exclude IDs to skip, e.g. those already found in another index
+     */
+    public List<String> search(String prefix, int limit, Set<String> exclude) {
+        List<String> ids = new ArrayList<>();
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return ids;
+        }
+        Set<String> seen = new LinkedHashSet<>(exclude);
+        // Every key starting with the prefix sorts before prefix + Character.MAX_VALUE
+        for (String id : entries.subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            if (seen.add(id)) {
+                ids.add(id);
+                if (ids.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lower-case, accents removed and whitespace collapsed, so "José  Núñez"
+     * matches "jose nu"
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "")
+            .replace(SEPARATOR, ' ')
+            .trim()
+            .replaceAll("\\s+", " ")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The whole text and each of its words, e.g. "Mary Jane Watson" can be found by
+     * "mary j", "jane" or "wat"
+     */
+    public static List<String> termsOf(String text) {
+        List<String> terms = new ArrayList<>();
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        terms.add(normalized);
+        String[] words = normalized.split("[\\s\\-]+");
+        if (words.length > 1) {
+            for (String word : words) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
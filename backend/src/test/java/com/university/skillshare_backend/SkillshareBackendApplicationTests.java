@@ -3,7 +3,7 @@ package com.university.skillshare_backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "mongo.index-migration.enabled=false")
 class SkillshareBackendApplicationTests {
 
 	@Test
@@ -23,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.skillshare_backend.dto.CursorPage;
 import com.university.skillshare_backend.model.Comment;
 import com.university.skillshare_backend.service.CommentService;
 
@@ -53,8 +54,8 @@ public class CommentControllerTest {
     @Test
     public void testGetCommentsByPostId() throws Exception {
         // Given
-        when(commentService.getCommentsByPostId("post123"))
-                .thenReturn(Arrays.asList(testComment));
+        when(commentService.getCommentsPage("post123", null, CommentService.DEFAULT_PAGE_SIZE, "oldest"))
+                .thenReturn(new CursorPage<>(Arrays.asList(testComment), null));
 
         // When
         ResultActions result = mockMvc.perform(get("/api/posts/post123/comments")
@@ -62,8 +63,9 @@ public class CommentControllerTest {
 
         // Then
         result.andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value("comment123"))
-                .andExpect(jsonPath("$[0].text").value("This is a test comment"));
+                .andExpect(jsonPath("$.items[0].id").value("comment123"))
+                .andExpect(jsonPath("$.items[0].text").value("This is a test comment"))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -85,4 +87,23 @@ public class CommentControllerTest {
         result.andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value("comment123"));
     }
+
+    @Test
+    public void testGetCommentsPage() throws Exception {
+        // Given
+        when(commentService.getCommentsPage("post123", "abc", 1, "newest"))
+                .thenReturn(new CursorPage<>(Arrays.asList(testComment), "next"));
+
+        // When
+        ResultActions result = mockMvc.perform(get("/api/posts/post123/comments")
+                .param("cursor", "abc")
+                .param("limit", "1")
+                .param("order", "newest"));
+
+        // Then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("comment123"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
 }
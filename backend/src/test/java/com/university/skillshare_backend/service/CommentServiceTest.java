@@ -0,0 +1,61 @@
+package com.university.skillshare_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.university.skillshare_backend.util.PageCursor;
+
+public class CommentServiceTest {
+
+    private static final String ID = "65a1b2c3d4e5f60718293a4b";
+    private static final PageCursor CURSOR = new PageCursor(1700000000123L, ID);
+    private static final Date AT = CURSOR.getDate();
+
+    private static Document keyset(String bound, String strictBound, String idBound) {
+        return new Document("postId", "post123")
+            .append("createdAt", new Document(bound, AT))
+            .append("$or", List.of(
+                new Document("createdAt", new Document(strictBound, AT)),
+                new Document("id", new Document(idBound, ID))));
+    }
+
+    @Test
+    public void testFirstPageIsUnbounded() {
+        // When
+        Query query = CommentService.keysetQuery("post123", null, false, true);
+
+        // Then
+        assertEquals(new Document("postId", "post123"), query.getQueryObject());
+        assertEquals(new Document("createdAt", -1).append("id", -1), query.getSortObject());
+    }
+
+    @Test
+    public void testNewestFirstStartsBeforeCursor() {
+        // When
+        Query exclusive = CommentService.keysetQuery("post123", CURSOR, false, true);
+        Query inclusive = CommentService.keysetQuery("post123", CURSOR, true, true);
+
+        // Then
+        assertEquals(keyset("$lte", "$lt", "$lt"), exclusive.getQueryObject());
+        assertEquals(keyset("$lte", "$lt", "$lte"), inclusive.getQueryObject());
+        assertEquals(new Document("createdAt", -1).append("id", -1), exclusive.getSortObject());
+    }
+
+    @Test
+    public void testOldestFirstStartsAfterCursor() {
+        // When
+        Query exclusive = CommentService.keysetQuery("post123", CURSOR, false, false);
+        Query inclusive = CommentService.keysetQuery("post123", CURSOR, true, false);
+
+        // Then
+        assertEquals(keyset("$gte", "$gt", "$gt"), exclusive.getQueryObject());
+        assertEquals(keyset("$gte", "$gt", "$gte"), inclusive.getQueryObject());
+        assertEquals(new Document("createdAt", 1).append("id", 1), exclusive.getSortObject());
+    }
+}
@@ -0,0 +1,92 @@
+package com.university.skillshare_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.university.skillshare_backend.model.User;
+
+public class EntityCacheServiceTest {
+
+    private EntityCacheService cacheService;
+
+    private User testUser;
+
+    @BeforeEach
+    public void setup() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        cacheService = new EntityCacheService(converter, 100, 60);
+
+        testUser = new User();
+        testUser.setId("65a1b2c3d4e5f60718293a4b");
+        testUser.setUsername("alice");
+        testUser.setPassword("hashed");
+    }
+
+    @Test
+    public void testHitReturnsCopy() {
+        // Given
+        cacheService.put(testUser, cacheService.readVersion(User.class));
+
+        // When
+        User first = cacheService.get(User.class, testUser.getId()).orElseThrow();
+        first.setPassword(null);
+        User second = cacheService.get(User.class, testUser.getId()).orElseThrow();
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals("alice", second.getUsername());
+        assertEquals("hashed", second.getPassword());
+    }
+
+    @Test
+    public void testEvictRemovesEntry() {
+        // Given
+        cacheService.put(testUser, cacheService.readVersion(User.class));
+
+        // When
+        cacheService.evict(User.class, testUser.getId());
+
+        // Then
+        assertFalse(cacheService.get(User.class, testUser.getId()).isPresent());
+    }
+
+    @Test
+    public void testReadOverlappingInvalidationIsNotCached() {
+        // Given a read that started before another request saved a user
+        long readVersion = cacheService.readVersion(User.class);
+        cacheService.evict(User.class, "someOtherUser");
+
+        // When
+        cacheService.put(testUser, readVersion);
+
+        // Then
+        assertFalse(cacheService.get(User.class, testUser.getId()).isPresent());
+    }
+
+    @Test
+    public void testStatsCountHitsAndMisses() {
+        // Given
+        cacheService.put(testUser, cacheService.readVersion(User.class));
+
+        // When
+        cacheService.get(User.class, testUser.getId());
+        cacheService.get(User.class, "missing");
+
+        // Then
+        Map<String, Object> stats = cacheService.getStats().get("User");
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertTrue(cacheService.isCached(User.class));
+    }
+}
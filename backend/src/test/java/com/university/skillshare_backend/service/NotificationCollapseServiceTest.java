@@ -0,0 +1,74 @@
+package com.university.skillshare_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import com.university.skillshare_backend.model.Notification.NotificationType;
+
+public class NotificationCollapseServiceTest {
+
+    private static final Document ACTOR_ID = new Document("$literal", "user123");
+    private static final Document ACTOR_NAME = new Document("$literal", "alice");
+    private static final Document IDS = new Document("$ifNull", List.of("$actorIds", List.of()));
+    private static final Document COUNT = new Document("$ifNull", List.of("$actorCount", 0));
+
+    private final NotificationCollapseService service =
+        new NotificationCollapseService(null, null, null, null, 60, 3, 2, 2000);
+
+    private Document set(int stage) {
+        List<Document> pipeline = service.updatePipeline("owner123", NotificationType.LIKE, "post123",
+            "New likes", "user123", "alice", "liked your post", Map.of("postId", "post123"), 1700000000123L);
+        return pipeline.get(stage).get("$set", Document.class);
+    }
+
+    @Test
+    public void testRepeatActorIsNotCountedAgain() {
+        // Given
+        Document isNew = new Document("$eq", List.of(new Document("$indexOfArray", List.of(IDS, ACTOR_ID)), -1));
+
+        // When
+        Document fields = set(0);
+
+        // Then
+        assertEquals(new Document("$cond", List.of(isNew, new Document("$add", List.of(COUNT, 1)), COUNT)),
+            fields.get("actorCount"));
+    }
+
+    @Test
+    public void testActorIdsStopAtMaxActorIds() {
+        // Given
+        Document otherIds = new Document("$filter",
+            new Document("input", IDS).append("cond", new Document("$ne", List.of("$$this", ACTOR_ID))));
+
+        // When
+        Document fields = set(0);
+
+        // Then
+        assertEquals(new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(List.of(ACTOR_ID), otherIds)), 2)),
+            fields.get("actorIds"));
+    }
+
+    @Test
+    public void testMessageNamesOneActorOrCountsOthers() {
+        // Given
+        Document others = new Document("$subtract", List.of("$actorCount", 1));
+        Document expected = new Document("$cond", List.of(
+            new Document("$eq", List.of("$actorCount", 1)),
+            new Document("$concat", List.of(ACTOR_NAME, " liked your post")),
+            new Document("$concat", List.of(ACTOR_NAME, " and ", new Document("$toString", others),
+                new Document("$cond", List.of(new Document("$eq", List.of(others, 1)), " other ", " others ")),
+                "liked your post"))));
+
+        // When
+        Document message = set(1);
+
+        // Then
+        assertEquals(new Document("message", expected), message);
+    }
+}
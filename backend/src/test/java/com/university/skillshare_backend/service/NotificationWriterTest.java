@@ -0,0 +1,139 @@
+package com.university.skillshare_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.university.skillshare_backend.model.Notification;
+import com.university.skillshare_backend.model.Notification.NotificationType;
+import com.university.skillshare_backend.service.NotificationWriter.OverflowPolicy;
+
+public class NotificationWriterTest {
+
+    private MongoTemplate mongoTemplate;
+    private NotificationCounterService counterService;
+
+    @BeforeEach
+    public void setup() {
+        mongoTemplate = mock(MongoTemplate.class);
+        counterService = mock(NotificationCounterService.class);
+    }
+
+    // Not started, so notifications stay queued until stop() writes them
+    private NotificationWriter writer(int capacity, OverflowPolicy policy) {
+        return new NotificationWriter(mongoTemplate, mock(SimpMessagingTemplate.class), counterService,
+            new UserSessionRegistry(), capacity, 100, 10, policy, 3, 1);
+    }
+
+    private static Notification notification(String userId) {
+        return new Notification(userId, "New Follower", "alice started following you", NotificationType.FOLLOW);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Notification> insertedBatch() {
+        ArgumentCaptor<Collection<Notification>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate).insert(batch.capture(), eq(Notification.class));
+        return new ArrayList<>(batch.getValue());
+    }
+
+    @Test
+    public void testDropOldestKeepsNewestAndWritesThemInOneBatch() {
+        // Given
+        NotificationWriter writer = writer(2, OverflowPolicy.DROP_OLDEST);
+        Notification first = writer.enqueue(notification("u1"));
+        Notification second = writer.enqueue(notification("u1"));
+        Notification third = writer.enqueue(notification("u2"));
+
+        // When
+        writer.stop();
+
+        // Then
+        assertNotNull(first.getId());
+        assertEquals(List.of(second, third), insertedBatch());
+        assertEquals(1L, writer.getStats().get("dropped"));
+        verify(counterService).adjust("u1", 1L);
+        verify(counterService).adjust("u2", 1L);
+    }
+
+    @Test
+    public void testCallerRunsWritesOverflowImmediately() {
+        // Given
+        NotificationWriter writer = writer(1, OverflowPolicy.CALLER_RUNS);
+        writer.enqueue(notification("u1"));
+
+        // When
+        Notification overflow = writer.enqueue(notification("u2"));
+
+        // Then
+        assertEquals(List.of(overflow), insertedBatch());
+        assertEquals(1L, writer.getStats().get("callerRuns"));
+        assertEquals(1, writer.getStats().get("queueDepth"));
+    }
+
+    @Test
+    public void testRefusedNotificationIsDroppedAndTheRestWritten() {
+        // Given
+        NotificationWriter writer = writer(10, OverflowPolicy.BLOCK);
+        writer.enqueue(notification("u1"));
+        writer.enqueue(notification("u2"));
+        writer.enqueue(notification("u3"));
+        BulkWriteError refused = new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1);
+        MongoBulkWriteException bulk = new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+            List.of(refused), null, new ServerAddress(), Set.of());
+        doThrow(new BulkOperationException("Bulk write failed", bulk))
+            .doReturn(List.of())
+            .when(mongoTemplate).insert(anyCollection(), eq(Notification.class));
+
+        // When
+        writer.stop();
+
+        // Then
+        verify(mongoTemplate, times(2)).insert(anyCollection(), eq(Notification.class));
+        verify(counterService).adjust("u1", 1L);
+        verify(counterService).adjust("u3", 1L);
+        verify(counterService, never()).adjust(eq("u2"), anyLong());
+        assertEquals(2L, writer.getStats().get("written"));
+        assertEquals(1L, writer.getStats().get("failed"));
+    }
+
+    @Test
+    public void testEnqueueAfterStopWritesOnCaller() {
+        // Given
+        NotificationWriter writer = writer(10, OverflowPolicy.BLOCK);
+        writer.stop();
+
+        // When
+        Notification late = writer.enqueue(notification("u1"));
+
+        // Then
+        assertEquals(List.of(late), insertedBatch());
+        assertEquals(0, writer.getStats().get("queueDepth"));
+        verify(counterService).adjust("u1", 1L);
+    }
+}
@@ -0,0 +1,72 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DecayingTopKTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private AtomicLong now;
+    private DecayingTopK topK;
+
+    @BeforeEach
+    public void setup() {
+        now = new AtomicLong(1_000_000_000L);
+        topK = new DecayingTopK(3, HOUR, now::get);
+    }
+
+    @Test
+    public void testRecentEventsOutrankOlderOnes() {
+        // Given
+        topK.add("old", 10);
+        now.addAndGet(2 * HOUR);
+
+        // When
+        topK.add("new", 5);
+
+        // Then: the old score has decayed to 2.5
+        List<DecayingTopK.Scored> top = topK.top(2);
+        assertEquals(List.of("new", "old"), keys(top));
+        assertEquals(2.5, top.get(1).getScore(), 1e-9);
+    }
+
+    @Test
+    public void testLowestKeyDroppedBeyondCapacity() {
+        // When
+        topK.add("a", 4);
+        topK.add("b", 1);
+        topK.add("c", 3);
+        topK.add("d", 2);
+
+        // Then
+        assertEquals(3, topK.size());
+        assertEquals(List.of("a", "c", "d"), keys(topK.top(10)));
+    }
+
+    @Test
+    public void testOrderSurvivesRescaling() {
+        // Given
+        topK.add("a", 1);
+        topK.add("b", 2);
+
+        // When: far enough ahead to move the landmark
+        now.addAndGet(100 * HOUR);
+        topK.add("a", 1);
+
+        // Then: b has decayed away, a keeps only its new event
+        List<DecayingTopK.Scored> top = topK.top(10);
+        assertEquals(List.of("a"), keys(top));
+        assertEquals(1.0, top.get(0).getScore(), 1e-9);
+    }
+
+    private List<String> keys(List<DecayingTopK.Scored> scored) {
+        return scored.stream().map(DecayingTopK.Scored::getKey).collect(Collectors.toList());
+    }
+}
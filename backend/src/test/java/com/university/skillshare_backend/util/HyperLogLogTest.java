@@ -0,0 +1,76 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCountsAreNearlyExact() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            sketch.add("viewer-" + i);
+            sketch.add("viewer-" + i);
+        }
+
+        // Then
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCountWithinErrorBound() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add(Integer.toHexString(i * 7919) + "65a1b2c3d4e5");
+        }
+
+        // Then: three standard errors
+        assertEquals(200_000, sketch.estimate(), 200_000 * 0.05);
+        assertEquals(HyperLogLog.SIZE_IN_BYTES, sketch.toBytes().length);
+    }
+
+    @Test
+    public void testMergeIsUnionAndIdempotent() {
+        // Given: two nodes seeing overlapping viewers
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            (i < 20_000 ? first : second).add("user" + i);
+            if (i >= 10_000 && i < 20_000) {
+                second.add("user" + i);
+            }
+            all.add("user" + i);
+        }
+
+        // When
+        HyperLogLog merged = HyperLogLog.fromBytes(first.toBytes());
+        merged.merge(second);
+        merged.merge(second);
+
+        // Then
+        assertEquals(all, merged);
+        assertEquals(30_000, merged.estimate(), 30_000 * 0.05);
+    }
+
+    @Test
+    public void testAddReportsChanges() {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // Then
+        assertTrue(sketch.isEmpty());
+        assertTrue(sketch.add("alice"));
+        assertFalse(sketch.add("alice"));
+        assertFalse(sketch.isEmpty());
+    }
+}
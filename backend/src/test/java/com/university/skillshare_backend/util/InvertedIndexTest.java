@@ -0,0 +1,73 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new InvertedIndex();
+        index.index("1", "Knitting for beginners", "Start with a simple scarf.");
+        index.index("2", "Woodworking basics", "A scarf rack made from oak and some knitting needles.");
+        index.index("3", "Pottery", "Throwing bowls on the wheel.");
+    }
+
+    @Test
+    public void testTitleMatchRanksFirst() {
+        // When
+        InvertedIndex.SearchResult result = index.search("knitting ", 0, 10);
+
+        // Then
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("1", "2"), ids(result));
+    }
+
+    @Test
+    public void testLastTermMatchesAsPrefix() {
+        // When
+        InvertedIndex.SearchResult result = index.search("pott", 0, 10);
+
+        // Then
+        assertEquals(List.of("3"), ids(result));
+        assertTrue(index.search("pott ", 0, 10).getHits().isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndRemoveAreIncremental() {
+        // When
+        index.index("3", "Pottery", "Glazing a scarf-shaped vase.");
+        index.remove("1");
+
+        // Then
+        assertEquals(List.of("2", "3"), ids(index.search("scarf ", 0, 10)).stream().sorted().collect(Collectors.toList()));
+        assertTrue(index.search("bowls ", 0, 10).getHits().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testPagination() {
+        // When
+        InvertedIndex.SearchResult first = index.search("scarf ", 0, 1);
+        InvertedIndex.SearchResult second = index.search("scarf ", 1, 1);
+
+        // Then
+        assertEquals(2, first.getTotal());
+        assertEquals(1, first.getHits().size());
+        assertEquals(1, second.getHits().size());
+        assertNotEquals(ids(first), ids(second));
+    }
+
+    private List<String> ids(InvertedIndex.SearchResult result) {
+        return result.getHits().stream().map(InvertedIndex.Hit::getDocumentId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,60 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverValuesWithinThreePercent() {
+        for (long micros : new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 123_456, 10_000_000 }) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(upper >= micros, "upper bound below value " + micros);
+            assertTrue(upper <= micros * 1.04 + 1, "bucket too wide for " + micros);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        // Given: 99 fast operations and one slow one
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(2, TimeUnit.MILLISECONDS);
+        }
+        histogram.record(500, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertEquals(2000, histogram.percentileMicros(0.99), 2000 * 0.04);
+        assertEquals(500_000, histogram.percentileMicros(1.0));
+        assertEquals(100L, histogram.getStats().get("count"));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 100, TimeUnit.MICROSECONDS);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(80_000L, histogram.getStats().get("count"));
+        assertTrue(histogram.percentileMicros(0.5) >= 49);
+    }
+}
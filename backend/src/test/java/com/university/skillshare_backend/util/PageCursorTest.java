@@ -0,0 +1,66 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        // Given
+        PageCursor cursor = new PageCursor(1700000000123L, "65a1b2c3d4e5f60718293a4b");
+
+        // When
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(1700000000123L, decoded.getTimestamp());
+        assertEquals("65a1b2c3d4e5f60718293a4b", decoded.getId());
+    }
+
+    @Test
+    public void testGroupRoundTripsAndDefaultsToZero() {
+        // Given
+        PageCursor grouped = new PageCursor(1, 1700000000123L, "65a1b2c3d4e5f60718293a4b");
+        PageCursor ungrouped = new PageCursor(1700000000123L, "65a1b2c3d4e5f60718293a4b");
+
+        // When
+        PageCursor decoded = PageCursor.decode(grouped.encode());
+
+        // Then
+        assertEquals(1, decoded.getGroup());
+        assertEquals(1700000000123L, decoded.getTimestamp());
+        assertEquals("65a1b2c3d4e5f60718293a4b", decoded.getId());
+        assertEquals(0, PageCursor.decode(ungrouped.encode()).getGroup());
+    }
+
+    @Test
+    public void testLocalDateTimeUsesSystemZone() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+
+        // When
+        PageCursor cursor = PageCursor.of(createdAt, "post123");
+
+        // Then
+        assertEquals(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), cursor.getTimestamp());
+    }
+
+    @Test
+    public void testEmptyCursorMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    public void testMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
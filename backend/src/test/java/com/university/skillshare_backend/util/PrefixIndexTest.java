@@ -0,0 +1,60 @@
+package com.university.skillshare_backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new PrefixIndex();
+        index.put("1", PrefixIndex.termsOf("Mary Jane Watson"));
+        index.put("2", PrefixIndex.termsOf("José Núñez"));
+        index.put("3", PrefixIndex.termsOf("Maryam"));
+    }
+
+    @Test
+    public void testMatchesAnyWordIgnoringCaseAndAccents() {
+        // When
+        List<String> byLastName = index.search("WAT", 10, Set.of());
+        List<String> byAccentlessName = index.search("jose nu", 10, Set.of());
+
+        // Then
+        assertEquals(List.of("1"), byLastName);
+        assertEquals(List.of("2"), byAccentlessName);
+    }
+
+    @Test
+    public void testEachIdOnceInTermOrderUpToLimit() {
+        // When: "mary" is a term of 1 twice ("mary jane watson" and "mary")
+        List<String> all = index.search("mary", 10, Set.of());
+        List<String> first = index.search("mary", 1, Set.of());
+        List<String> excluded = index.search("mary", 10, Set.of("1"));
+
+        // Then
+        assertEquals(List.of("1", "3"), all);
+        assertEquals(List.of("1"), first);
+        assertEquals(List.of("3"), excluded);
+    }
+
+    @Test
+    public void testPutReplacesPreviousTerms() {
+        // Given
+        index.put("3", PrefixIndex.termsOf("Zoe"));
+
+        // When
+        List<String> oldName = index.search("maryam", 10, Set.of());
+
+        // Then
+        assertTrue(oldName.isEmpty());
+        assertEquals(List.of("3"), index.search("zo", 10, Set.of()));
+    }
+}
@@ -45,7 +45,7 @@ const CommentItem = ({ comment, userId, onDelete, onUpdate }) => {
   };
   
   return (
-    <div className="comment-item bg-gray-50 p-3 rounded-md transition-colors duration-300">
+    <div data-comment-id={comment.id} className="comment-item bg-gray-50 p-3 rounded-md transition-colors duration-300">
       {isEditing ? (
         <CommentForm
           commentId={comment.id}
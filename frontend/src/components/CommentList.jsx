@@ -2,9 +2,11 @@ import { useState, useEffect } from 'react';
 import { getComments } from '../services/api';
 import CommentItem from './CommentItem';
 
-const CommentList = ({ postId, userId, initialComments = [] }) => {
+const CommentList = ({ postId, userId, initialComments = [], initialNextCursor = null }) => {
   const [comments, setComments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(initialNextCursor);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState(null);
   
   useEffect(() => {
@@ -14,8 +16,9 @@ const CommentList = ({ postId, userId, initialComments = [] }) => {
       setLoading(true);
       setError(null);
       try {
-        const data = await getComments(postId);
-        setComments(data);
+        const page = await getComments(postId);
+        setComments(page.items);
+        setNextCursor(page.nextCursor);
       } catch (error) {
         if (error.response?.status === 404) {
           console.log('Post not available or deleted');
@@ -33,8 +36,28 @@ const CommentList = ({ postId, userId, initialComments = [] }) => {
       fetchComments();
     } else {
       setComments(initialComments);
+      setNextCursor(initialNextCursor);
     }
-  }, [postId, initialComments]);
+  }, [postId, initialComments, initialNextCursor]);
+
+  // Append the next page of comments
+  const loadMoreComments = async () => {
+    if (!nextCursor || loadingMore) return;
+
+    setLoadingMore(true);
+    try {
+      const page = await getComments(postId, nextCursor);
+      setComments(prev => {
+        const seenIds = new Set(prev.map(comment => comment.id));
+        return [...prev, ...page.items.filter(comment => !seenIds.has(comment.id))];
+      });
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error loading more comments:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   // Update comments when initialComments changes
   useEffect(() => {
@@ -111,6 +134,16 @@ const CommentList = ({ postId, userId, initialComments = [] }) => {
           />
         ))
       )}
+
+      {nextCursor && (
+        <button
+          onClick={loadMoreComments}
+          disabled={loadingMore}
+          className="w-full py-2 text-sm text-[#2d79dc] hover:underline disabled:opacity-50"
+        >
+          {loadingMore ? 'Loading...' : 'Load more comments'}
+        </button>
+      )}
     </div>
   );
 };
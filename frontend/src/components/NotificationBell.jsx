@@ -5,11 +5,15 @@ import { useNavigate } from 'react-router-dom';
 import SockJS from 'sockjs-client';
 import Stomp from 'stompjs'; // Changed from '@stomp/stompjs'
 
+const PAGE_SIZE = 20;
+
 const NotificationBell = () => {
   const [notifications, setNotifications] = useState([]);
   const [unreadCount, setUnreadCount] = useState(0);
   const [isOpen, setIsOpen] = useState(false);
   const [loading, setLoading] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const { currentUser } = useUser();
   const dropdownRef = useRef(null);
   const stompClientRef = useRef(null);
@@ -38,12 +42,22 @@ const NotificationBell = () => {
         // Add withCredentials option
         socket.withCredentials = true;
 
-        client.connect({}, () => {
-          // Subscribe to user-specific notifications
-          client.subscribe(`/user/${currentUser.id}/topic/notifications`, (message) => {
+        // The session token binds this connection to the user, so /user/... destinations reach it;
+        // without one the header is left out and the connection stays anonymous
+        const token = localStorage.getItem('skillshare_token');
+        const headers = token ? { Authorization: token } : {};
+
+        client.connect(headers, () => {
+          // Subscribe to user-specific notifications; collapsed ones replace their earlier version
+          client.subscribe('/user/topic/notifications', (message) => {
             const notification = JSON.parse(message.body);
-            setNotifications(prev => [notification, ...prev]);
-            setUnreadCount(prev => prev + 1);
+            setNotifications(prev => [notification, ...prev.filter(n => n.id !== notification.id)]);
+          });
+
+          // The server pushes the unread count whenever it changes
+          client.subscribe('/user/topic/notifications/unread-count', (message) => {
+            const data = JSON.parse(message.body);
+            setUnreadCount(data.unread);
           });
         }, (error) => {
           console.error('WebSocket connection error:', error);
@@ -76,8 +90,11 @@ const NotificationBell = () => {
     
     setLoading(true);
     try {
-      const response = await axios.get(`http://localhost:8081/api/notifications/user/${currentUser.id}`);
-      setNotifications(response.data);
+      const response = await axios.get(`http://localhost:8081/api/notifications/user/${currentUser.id}/inbox`, {
+        params: { limit: PAGE_SIZE }
+      });
+      setNotifications(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching notifications:', error);
     } finally {
@@ -85,6 +102,27 @@ const NotificationBell = () => {
     }
   };
 
+  const loadMoreNotifications = async () => {
+    if (!currentUser || !nextCursor || loadingMore) return;
+
+    setLoadingMore(true);
+    try {
+      const response = await axios.get(`http://localhost:8081/api/notifications/user/${currentUser.id}/inbox`, {
+        params: { cursor: nextCursor, limit: PAGE_SIZE }
+      });
+      // Notifications pushed since the first page may show up again
+      setNotifications(prev => [
+        ...prev,
+        ...response.data.items.filter(n => !prev.some(p => p.id === n.id))
+      ]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error('Error loading more notifications:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const fetchUnreadCount = async () => {
     if (!currentUser) return;
     
@@ -96,6 +134,13 @@ const NotificationBell = () => {
     }
   };
 
+  // The count pushed over the WebSocket is authoritative; only fetch it while disconnected
+  const syncUnreadCount = () => {
+    if (!stompClientRef.current?.connected) {
+      fetchUnreadCount();
+    }
+  };
+
   const handleMarkAsRead = async (notificationId) => {
     try {
       await axios.put(`http://localhost:8081/api/notifications/${notificationId}/read`);
@@ -104,9 +149,7 @@ const NotificationBell = () => {
       setNotifications(notifications.map(n => 
         n.id === notificationId ? { ...n, read: true } : n
       ));
-      
-      // Update unread count
-      setUnreadCount(prev => Math.max(0, prev - 1));
+      syncUnreadCount();
     } catch (error) {
       console.error('Error marking notification as read:', error);
     }
@@ -121,17 +164,7 @@ const NotificationBell = () => {
         n.id === notificationId ? { ...n, read: false } : n
       ));
 
-      /* setNotifications(notifications.map(n => 
-        n.id === notificationId ? { ...n, read: false } : n
-      )); */
-
-      /*
-      setNotifications(notifications.map(n => 
-        n.id === notificationId ? { ...n, read: false } : n
-      ));*/
-      
-      // Update unread count
-      setUnreadCount(prev => prev + 1);
+      syncUnreadCount();
     } catch (error) {
       console.error('Error marking notification as unread:', error);
     }
@@ -145,7 +178,7 @@ const NotificationBell = () => {
       
       // Update local state
       setNotifications(notifications.map(n => ({ ...n, read: true })));
-      setUnreadCount(0);
+      syncUnreadCount();
     } catch (error) {
       console.error('Error marking all as read:', error);
     }
@@ -158,12 +191,7 @@ const NotificationBell = () => {
       // Update local state
       const updatedNotifications = notifications.filter(n => n.id !== notificationId);
       setNotifications(updatedNotifications);
-      
-      // Update unread count if needed
-      const wasUnread = notifications.find(n => n.id === notificationId)?.read === false;
-      if (wasUnread) {
-        setUnreadCount(prev => Math.max(0, prev - 1));
-      }
+      syncUnreadCount();
     } catch (error) {
       console.error('Error deleting notification:', error);
     }
@@ -181,12 +209,12 @@ const NotificationBell = () => {
         const response = await axios.get(`http://localhost:8081/api/posts/${notification.relatedItemId}`);
         if (response.data) {
           const postId = notification.relatedItemId;
-          const commentPosition = notification.metadata?.commentPosition;
+          const commentId = notification.metadata?.commentId;
           
           navigate(`/post/${postId}`, {
             state: {
-              scrollToComment: !!commentPosition,
-              commentPosition: parseInt(commentPosition)
+              scrollToComment: !!commentId,
+              commentId
             }
           });
           setIsOpen(false);
@@ -383,6 +411,15 @@ const NotificationBell = () => {
                 ))}
               </ul>
             )}
+            {!loading && nextCursor && (
+              <button
+                className="w-full py-2 text-sm text-indigo-600 hover:text-indigo-800 disabled:opacity-50"
+                onClick={loadMoreNotifications}
+                disabled={loadingMore}
+              >
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            )}
           </div>
           
           {notifications.length > 0 && (
@@ -19,6 +19,7 @@ const PostCard = ({ post: initialPost, userId, detailed = false, onDelete, onUpd
   const [isEditing, setIsEditing] = useState(false);
   const isOwner = currentUser?.id === post.userId;
   const [comments, setComments] = useState(initialPost.comments || []);
+  const [commentsCursor, setCommentsCursor] = useState(initialPost.commentsNextCursor || null);
   const [showShareModal, setShowShareModal] = useState(false);
   const [userGroups, setUserGroups] = useState([]);
   const [isLiked, setIsLiked] = useState(false);
@@ -117,9 +118,10 @@ const PostCard = ({ post: initialPost, userId, detailed = false, onDelete, onUpd
   const toggleComments = async () => {
     if (!detailed && !showComments) {
       try {
-        const response = await getComments(post.id);
-        if (response) {
-          setComments(response);
+        const page = await getComments(post.id);
+        if (page) {
+          setComments(page.items);
+          setCommentsCursor(page.nextCursor);
         }
       } catch (error) {
         if (error.response?.status === 404) {
@@ -426,6 +428,7 @@ const PostCard = ({ post: initialPost, userId, detailed = false, onDelete, onUpd
                 postId={post.id}
                 userId={userId}
                 initialComments={comments}
+                initialNextCursor={commentsCursor}
               />
             </div>
           )}
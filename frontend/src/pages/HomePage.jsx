@@ -9,6 +9,8 @@ import ScoreDashboard from '../components/ScoreDashboard';
 
 const HomePage = () => {
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [showQuiz, setShowQuiz] = useState(false);
@@ -20,8 +22,10 @@ const HomePage = () => {
     const fetchContent = async () => {
       try {
         setLoading(true);
+        // The API returns one page of posts and the cursor of the next one
         const postsRes = await axios.get('http://localhost:8081/api/posts');
-        setPosts(postsRes.data);
+        setPosts(postsRes.data.items);
+        setNextCursor(postsRes.data.nextCursor);
       } catch (err) {
         console.error('Error fetching content:', err);
         setError('Failed to load content. Please try again later.');
@@ -33,6 +37,22 @@ const HomePage = () => {
     fetchContent();
   }, []);
   
+  const loadMorePosts = async () => {
+    try {
+      setLoadingMore(true);
+      const postsRes = await axios.get('http://localhost:8081/api/posts', {
+        params: { cursor: nextCursor }
+      });
+      setPosts(prevPosts => [...prevPosts, ...postsRes.data.items]);
+      setNextCursor(postsRes.data.nextCursor);
+    } catch (err) {
+      console.error('Error fetching more posts:', err);
+      setError('Failed to load more posts. Please try again later.');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handlePostCreated = (newPost) => {
     // Add the new post to the beginning of the list
     setPosts(prevPosts => [newPost, ...prevPosts]);
@@ -121,6 +141,15 @@ const HomePage = () => {
               />
             </div>
           ))}
+          {nextCursor && (
+            <button
+              onClick={loadMorePosts}
+              disabled={loadingMore}
+              className="w-full py-2 text-[#2d79dc] hover:underline disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more posts'}
+            </button>
+          )}
         </div>
       )}
     </div>
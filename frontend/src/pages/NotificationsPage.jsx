@@ -286,10 +286,15 @@ export default NotificationsPage;
 
 
 
+const PAGE_SIZE = 20;
+
+
 const NotificationsPage = () => {
   const [notifications, setNotifications] = useState([]);
   const [loading, setLoading] = useState(true);
   const [activeTab, setActiveTab] = useState('all'); // 'all' or 'unread'
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const { currentUser } = useUser();
   const navigate = useNavigate();
 
@@ -304,12 +309,11 @@ const NotificationsPage = () => {
     
     setLoading(true);
     try {
-      const endpoint = activeTab === 'unread'
-        ? `http://localhost:8081/api/notifications/user/${currentUser.id}/unread`
-        : `http://localhost:8081/api/notifications/user/${currentUser.id}`;
-        
-      const response = await axios.get(endpoint);
-      setNotifications(response.data);
+      const response = await axios.get(`http://localhost:8081/api/notifications/user/${currentUser.id}/inbox`, {
+        params: { unreadOnly: activeTab === 'unread', limit: PAGE_SIZE }
+      });
+      setNotifications(response.data.items);
+      setNextCursor(response.data.nextCursor);
     } catch (error) {
       console.error('Error fetching notifications:', error);
     } finally {
@@ -317,6 +321,26 @@ const NotificationsPage = () => {
     }
   };
 
+  const loadMoreNotifications = async () => {
+    if (!currentUser || !nextCursor || loadingMore) return;
+
+    setLoadingMore(true);
+    try {
+      const response = await axios.get(`http://localhost:8081/api/notifications/user/${currentUser.id}/inbox`, {
+        params: { unreadOnly: activeTab === 'unread', cursor: nextCursor, limit: PAGE_SIZE }
+      });
+      setNotifications(prev => [
+        ...prev,
+        ...response.data.items.filter(n => !prev.some(p => p.id === n.id))
+      ]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error('Error loading more notifications:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleMarkAsRead = async (notificationId) => {
     try {
       await axios.put(`http://localhost:8081/api/notifications/${notificationId}/read`);
@@ -548,6 +572,15 @@ const NotificationsPage = () => {
               ))}
             </ul>
           )}
+          {!loading && nextCursor && (
+            <button
+              className="w-full py-3 text-indigo-600 hover:underline disabled:opacity-50"
+              onClick={loadMoreNotifications}
+              disabled={loadingMore}
+            >
+              {loadingMore ? 'Loading...' : 'Load more notifications'}
+            </button>
+          )}
         </div>
       </div>
     </div>
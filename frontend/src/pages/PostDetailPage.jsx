@@ -22,11 +22,12 @@ const PostDetailPage = () => {
       
       try {
         const postData = await getPost(postId);
-        const comments = await getComments(postId);
+        const commentsPage = await getComments(postId);
         
         setPost({
           ...postData,
-          comments: comments
+          comments: commentsPage.items,
+          commentsNextCursor: commentsPage.nextCursor
         });
       } catch (error) {
         console.error('Error fetching post details:', error);
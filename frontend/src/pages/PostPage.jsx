@@ -13,19 +13,20 @@ const PostPage = () => {
   
   useEffect(() => {
     if (location.state?.scrollToComment && commentListRef.current) {
-      const commentPosition = location.state.commentPosition;
-      const commentElements = commentListRef.current.querySelectorAll('.comment-item');
+      const commentElement = commentListRef.current.querySelector(
+        `.comment-item[data-comment-id="${location.state.commentId}"]`
+      );
       
-      if (commentElements[commentPosition]) {
-        commentElements[commentPosition].scrollIntoView({ 
+      if (commentElement) {
+        commentElement.scrollIntoView({ 
           behavior: 'smooth',
           block: 'center'
         });
         
         // Highlight the comment briefly
-        commentElements[commentPosition].classList.add('highlight-comment');
+        commentElement.classList.add('highlight-comment');
         setTimeout(() => {
-          commentElements[commentPosition].classList.remove('highlight-comment');
+          commentElement.classList.remove('highlight-comment');
         }, 2000);
       }
     }
@@ -38,9 +38,12 @@ export const getLikeCount = async (postId, userId) => {
   return response.data;
 };
 
-// Comment endpoints
-export const getComments = async (postId) => {
-  const response = await api.get(`/posts/${postId}/comments`);
+// Comment endpoints: one page of a post's comments, oldest first; pass the page's
+// nextCursor to get the next one
+export const getComments = async (postId, cursor = null, limit = 20) => {
+  const response = await api.get(`/posts/${postId}/comments`, {
+    params: { cursor, limit }
+  });
   return response.data;
 };
 
@@ -151,9 +154,12 @@ export const getLikeCount = async (postId, userId) => {
   return response.data;
 };
 
-// Comment endpoints
-export const getComments = async (postId) => {
-  const response = await api.get(`/posts/${postId}/comments`);
+// Comment endpoints: one page of a post's comments, oldest first; pass the page's
+// nextCursor to get the next one
+export const getComments = async (postId, cursor = null, limit = 20) => {
+  const response = await api.get(`/posts/${postId}/comments`, {
+    params: { cursor, limit }
+  });
   return response.data;
 };
 